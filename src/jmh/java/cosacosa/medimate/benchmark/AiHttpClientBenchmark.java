@@ -0,0 +1,89 @@
+package cosacosa.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import cosacosa.medimate.config.AiHttpClientProperties;
+import cosacosa.medimate.config.OpenAiClientConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로컬 모의 서버(응답 지연 50ms)에 OpenAiClientConfig 와 같은 방식으로 만든 WebClient 로 요청 N개를 동시에 보내는 데 걸리는 시간.
+ * 풀 크기(maxConnections)와 동시 요청 수(concurrency)를 바꿔 가며 실제 동시성에 맞는 풀 크기를 찾는다.
+ * 결과가 (요청 수 / maxConnections) x 50ms 에 가까우면 풀이 병목이고, concurrency 와 무관하게 일정하면 풀이 충분한 것이다.
+ * 커넥션을 기다리는 요청이 pendingAcquireMaxCount 를 넘으면 실패하므로 pending 상한도 함께 확인된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AiHttpClientBenchmark {
+
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(50);
+    private static final String RESPONSE = """
+            {"choices":[{"message":{"role":"assistant","content":"translated"}}]}""";
+
+    @Param({"16", "64", "256"})
+    int maxConnections;
+
+    @Param({"64", "256"})
+    int concurrency;
+
+    @Param({"1024"})
+    int requests;
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/v1/chat/completions", (request, response) -> request.receive().then()
+                        .then(Mono.delay(UPSTREAM_LATENCY))
+                        .then(response.header("Content-Type", "application/json").sendString(Mono.just(RESPONSE)).then())))
+                .bindNow();
+
+        AiHttpClientProperties.Pool pool = new AiHttpClientProperties.Pool();
+        pool.setMaxConnections(maxConnections);
+        pool.setPendingAcquireMaxCount(Math.max(concurrency, pool.getPendingAcquireMaxCount()));
+        connectionProvider = OpenAiClientConfig.connectionProvider("benchmark", pool);
+        webClient = OpenAiClientConfig.webClientBuilder("http://127.0.0.1:" + server.port() + "/v1",
+                        OpenAiClientConfig.httpClient(connectionProvider, pool))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public long concurrentChatCompletions() {
+        Long completed = Flux.range(0, requests)
+                .flatMap(i -> webClient.post()
+                        .uri("/chat/completions")
+                        .bodyValue(Map.of("model", "gpt-4o", "messages", "hello " + i))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class), concurrency)
+                .count()
+                .block(Duration.ofMinutes(2));
+        if (completed == null || completed != requests) {
+            throw new IllegalStateException("completed " + completed + " of " + requests);
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,117 @@
+package cosacosa.medimate.benchmark;
+
+import cosacosa.medimate.domain.TimeOrderedIds;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 채팅 메세지 N건 저장 시간 비교.
+ * perMessage: 기존 방식 (IDENTITY id, 메세지마다 INSERT + generated key 조회 + 커밋)
+ * writeBehind: 앱에서 발급한 id 로 batchSize 건씩 JDBC 배치 INSERT 후 한 번 커밋
+ * DB는 인메모리 H2를 쓰고, 실제 MySQL 과의 네트워크 왕복은 구문 실행/커밋마다 roundTripMicros 만큼 대기해 모사한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChatPersistenceBenchmark {
+
+    private static final int MESSAGES = 500;
+
+    @Param({"0", "300"})
+    long roundTripMicros;
+
+    @Param({"100"})
+    int batchSize;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:chat;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_chat_message (id BIGINT AUTO_INCREMENT PRIMARY KEY, sender VARCHAR(255), message TEXT, korean_message TEXT, created_at TIMESTAMP, chat_room_id BIGINT)");
+            statement.execute("CREATE TABLE chat_message (id BIGINT PRIMARY KEY, sender VARCHAR(255), message TEXT, korean_message TEXT, created_at TIMESTAMP, chat_room_id BIGINT)");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE identity_chat_message");
+            statement.execute("TRUNCATE TABLE chat_message");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void perMessage() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_chat_message (sender, message, korean_message, created_at, chat_room_id) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < MESSAGES; i++) {
+                bind(insert, 1, i);
+                insert.executeUpdate();
+                roundTrip();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                }
+                connection.commit();
+                roundTrip();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void writeBehind() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO chat_message (id, sender, message, korean_message, created_at, chat_room_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < MESSAGES; i++) {
+                insert.setLong(1, TimeOrderedIds.next());
+                bind(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0 || i == MESSAGES - 1) {
+                    insert.executeBatch();
+                    roundTrip();
+                    connection.commit();
+                    roundTrip();
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement insert, int from, int i) throws SQLException {
+        insert.setString(from, "user");
+        insert.setString(from + 1, "Hello, how long have you had the headache? #" + i);
+        insert.setString(from + 2, "안녕하세요, 두통이 얼마나 되셨나요? #" + i);
+        insert.setTimestamp(from + 3, Timestamp.valueOf(LocalDateTime.now()));
+        insert.setLong(from + 4, 1L + (i % 10));
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package cosacosa.medimate.benchmark;
+
+import cosacosa.medimate.config.ChatDispatcherProperties;
+import cosacosa.medimate.service.ChatRoomDispatcher;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * N개 방 x 방마다 M개 메세지를 처리하는 데 걸리는 시간 비교 (번역 지연은 1~20ms 임의 값으로 모사).
+ * serialPerRoom: 같은 방의 이전 메세지 번역이 끝나야 다음 번역을 시작 (방 단위 잠금과 같은 방식)
+ * mailbox: ChatRoomDispatcher - 번역은 모두 병렬로 시작하고 결과만 방마다 도착 순서대로 처리
+ * 두 방식 모두 방 안의 처리 순서가 도착 순서와 다르면 예외를 던진다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChatRoomDispatchBenchmark {
+
+    @Param({"10", "200"})
+    int rooms;
+
+    @Param({"20"})
+    int messagesPerRoom;
+
+    @Param({"serialPerRoom", "mailbox"})
+    String mode;
+
+    private ChatRoomDispatcher dispatcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dispatcher = new ChatRoomDispatcher(new ChatDispatcherProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void roomsTimesMessages() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(rooms * messagesPerRoom);
+        AtomicInteger[] lastDelivered = new AtomicInteger[rooms];
+        for (int room = 0; room < rooms; room++) {
+            lastDelivered[room] = new AtomicInteger(-1);
+        }
+        Map<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+        for (int seq = 0; seq < messagesPerRoom; seq++) {
+            for (int room = 0; room < rooms; room++) {
+                long roomId = room;
+                int message = seq;
+                Runnable deliver = () -> {
+                    if (lastDelivered[(int) roomId].getAndSet(message) != message - 1) {
+                        throw new IllegalStateException("room " + roomId + " delivered out of order");
+                    }
+                    delivered.countDown();
+                };
+                if ("mailbox".equals(mode)) {
+                    dispatcher.dispatch(roomId, translate(message), translated -> deliver.run());
+                } else {
+                    tails.compute(roomId, (id, previous) -> (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous)
+                            .thenCompose(ignored -> translate(message).toFuture())
+                            .thenAccept(translated -> deliver.run()));
+                }
+            }
+        }
+        if (!delivered.await(2, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("not all messages were delivered");
+        }
+    }
+
+    private static Mono<Integer> translate(int message) {
+        return Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextInt(1, 21))).thenReturn(message);
+    }
+}
@@ -0,0 +1,169 @@
+package cosacosa.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.AiHttpClientProperties;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import cosacosa.medimate.config.OpenAiClientConfig;
+import cosacosa.medimate.config.PrescriptionGenerationProperties;
+import cosacosa.medimate.config.PrescriptionJobProperties;
+import cosacosa.medimate.config.TranslationCacheProperties;
+import cosacosa.medimate.service.AiCircuitBreakers;
+import cosacosa.medimate.service.ChatService;
+import cosacosa.medimate.service.LlmGateway;
+import cosacosa.medimate.service.LlmRateLimiter;
+import cosacosa.medimate.service.PrescriptionService;
+import cosacosa.medimate.service.TranslationCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 플랫폼 스레드 풀(Tomcat 기본 max-threads 200)과 가상 스레드에서 실제 서비스 호출 N개를 동시에 블로킹으로 처리하는 데 걸리는 시간 비교.
+ * 번역은 ChatService.translate, 처방전 추출은 PrescriptionService.extractMedicineNames 를 그대로 호출하고
+ * 업스트림(OpenAI / Upstage)만 로컬 모의 서버로 바꿨다 (지연은 실제의 약 1/10). blockingScheduler 도 mode 에 맞춰 AsyncConfig 와 같이 만든다.
+ * 업스트림 쪽 상한(커넥션 풀, 동시 요청 수)은 concurrentRequests 이상으로 열어 두어 요청 스레드 수만 비교되게 한다.
+ * 결과가 (N / 200) 배로 늘어나면 스레드 수에 막혀 있는 것이고, N과 무관하게 일정하면 동시 요청을 모두 수용한 것이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    private static final Duration OPENAI_LATENCY = Duration.ofMillis(100);
+    private static final Duration UPSTAGE_LATENCY = Duration.ofMillis(50);
+    private static final String TRANSLATION_RESPONSE = """
+            {"choices":[{"message":{"role":"assistant","content":"두통이 사흘째 계속되고 있어요."}}]}""";
+    private static final String EXTRACTION_RESPONSE = """
+            {"choices":[{"message":{"role":"assistant","content":"{\\"medicine\\":[\\"타이레놀정500밀리그램\\",\\"뮤코스타정100밀리그램\\"]}"}}]}""";
+
+    @Param({"200", "1000"})
+    int concurrentRequests;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 번역 캐시에 걸리지 않도록 요청마다 다른 문장을 보낸다
+    private final AtomicLong sequence = new AtomicLong();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private Scheduler blockingScheduler;
+    private ChatService chatService;
+    private PrescriptionService prescriptionService;
+    private Path image;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .post("/v1/chat/completions", (request, response) -> request.receive().then()
+                                .then(Mono.delay(OPENAI_LATENCY))
+                                .then(response.header("Content-Type", "application/json").sendString(Mono.just(TRANSLATION_RESPONSE)).then()))
+                        .post("/v1/information-extraction/chat/completions", (request, response) -> request.receive().then()
+                                .then(Mono.delay(UPSTAGE_LATENCY))
+                                .then(response.header("Content-Type", "application/json").sendString(Mono.just(EXTRACTION_RESPONSE)).then())))
+                .bindNow();
+
+        AiHttpClientProperties.Pool pool = new AiHttpClientProperties.Pool();
+        pool.setMaxConnections(concurrentRequests);
+        pool.setPendingAcquireMaxCount(concurrentRequests);
+        connectionProvider = OpenAiClientConfig.connectionProvider("benchmark", pool);
+        String baseUrl = "http://127.0.0.1:" + server.port();
+        WebClient openAiWebClient = OpenAiClientConfig.webClientBuilder(baseUrl + "/v1", OpenAiClientConfig.httpClient(connectionProvider, pool)).build();
+        WebClient upstageWebClient = OpenAiClientConfig.webClientBuilder(baseUrl, OpenAiClientConfig.httpClient(connectionProvider, pool)).build();
+
+        blockingScheduler = "virtual".equals(mode)
+                ? Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtual-blocking")
+                : Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "benchmark-blocking");
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LlmRateLimitProperties rateLimitProperties = new LlmRateLimitProperties();
+        rateLimitProperties.getDefaultLimit().setMaxConcurrency(concurrentRequests);
+        AiCircuitBreakers aiCircuitBreakers = new AiCircuitBreakers(CircuitBreakerRegistry.ofDefaults(),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMinutes(1)).build()));
+        LlmGateway llmGateway = new LlmGateway(openAiWebClient, upstageWebClient, blockingScheduler, objectMapper,
+                new LlmRateLimiter(rateLimitProperties, objectMapper, meterRegistry), aiCircuitBreakers, meterRegistry);
+
+        // 이 경로에서 쓰지 않는 저장소 / 브로커 의존성은 null
+        TranslationCache translationCache = new TranslationCache(null, new TranslationCacheProperties(), blockingScheduler, meterRegistry);
+        chatService = new ChatService(null, null, null, llmGateway, translationCache, null, null, null, null);
+        PrescriptionJobProperties jobProperties = new PrescriptionJobProperties();
+        prescriptionService = new PrescriptionService(null, null, null, llmGateway, blockingScheduler,
+                objectMapper, jobProperties, new PrescriptionGenerationProperties(), meterRegistry);
+
+        byte[] bytes = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        image = Files.createTempFile("execution-mode-benchmark", ".jpg");
+        Files.write(image, bytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connectionProvider.dispose();
+        server.disposeNow();
+        blockingScheduler.dispose();
+        Files.deleteIfExists(image);
+    }
+
+    @Setup(Level.Iteration)
+    public void createExecutor() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void concurrentTranslations() throws Exception {
+        runConcurrently(() -> chatService.translate("I've had a headache for three days " + sequence.incrementAndGet(), "korean").block());
+    }
+
+    @Benchmark
+    public void concurrentPrescriptionExtractions() throws Exception {
+        runConcurrently(() -> prescriptionService.extractMedicineNames(image).block());
+    }
+
+    private void runConcurrently(Runnable request) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            futures.add(executor.submit(request));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
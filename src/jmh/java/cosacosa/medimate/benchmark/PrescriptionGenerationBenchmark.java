@@ -0,0 +1,238 @@
+package cosacosa.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.AiHttpClientProperties;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import cosacosa.medimate.config.OpenAiClientConfig;
+import cosacosa.medimate.service.AiCircuitBreakers;
+import cosacosa.medimate.service.LlmGateway;
+import cosacosa.medimate.service.LlmRateLimiter;
+import cosacosa.medimate.service.MedicineExplanationService;
+import cosacosa.medimate.service.PrescriptionDetails;
+import cosacosa.medimate.service.PrescriptionPrompts;
+import cosacosa.medimate.service.PrescriptionRenderer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 처방전 설명 생성 방식 비교: single (한 번의 요청으로 5개 섹션) vs parallel (섹션별 요청 5개를 동시에)
+ * vs structured (약품별 항목만 JSON 으로 받아 로컬에서 렌더링).
+ * 실제 PrescriptionPrompts 프롬프트를 LlmGateway 로 로컬 모의 OpenAI 서버에 보낸다.
+ * 모의 서버의 응답 본문은 모든 방식에 같은 처방전 설명 하나(DETAILS_KO / DETAILS_EN 예시 문구)에서 만든다.
+ * single / parallel 은 PrescriptionRenderer 로 렌더링한 본문을 프롬프트가 요구하는 섹션만큼 센티넬로 감싸 보내고,
+ * structured 는 같은 설명의 JSON 을 보낸다. 토큰 수는 실제로 주고받은 프롬프트 / 응답 본문에서 추정하며
+ * (토크나이저 없이 UTF-8 바이트 수 / 4, 방식 간 비교용 근사치), 모의 서버는 (첫 토큰 지연 + 출력 토큰 수 / 초당 토큰 수) 만큼 기다린 뒤 응답한다.
+ * 생성 속도는 실제(약 100 tokens/s)의 10배로 줄였다.
+ * 결과: ms/op 는 생성 대기 시간, promptTokens / completionTokens 는 한 번 생성에 드는 토큰 수 (llm.tokens 지표와 같은 값).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrescriptionGenerationBenchmark {
+
+    private static final Duration TIME_TO_FIRST_TOKEN = Duration.ofMillis(40);
+    private static final int TOKENS_PER_SECOND = 1000;
+
+    // 모든 방식이 생성하는 약품 설명 (약품마다 같은 문구)
+    private static final PrescriptionDetails.Sections DETAILS_KO = new PrescriptionDetails.Sections(
+            "열을 내리고 두통, 치통, 근육통, 생리통 등 가벼운 통증을 완화합니다.",
+            "성인은 1회 1~2정을 4~6시간 간격으로 복용합니다.\n하루 최대 8정을 넘기지 마십시오.",
+            "간 질환이 있거나 매일 술을 3잔 이상 마시는 경우 복용 전 의사와 상담하십시오.\n다른 해열진통제와 함께 복용하지 마십시오.",
+            "와파린 등 항응고제와 함께 장기간 복용하면 출혈 위험이 커질 수 있습니다.",
+            "드물게 발진, 가려움, 구역이 나타날 수 있습니다.\n이상 반응이 나타나면 복용을 중단하고 의사 또는 약사와 상의하십시오.",
+            "습기와 빛을 피해 실온에 보관하고 어린이의 손이 닿지 않는 곳에 두십시오.");
+    private static final PrescriptionDetails.Sections DETAILS_EN = new PrescriptionDetails.Sections(
+            "Reduces fever and relieves mild pain such as headache, toothache, muscle aches and menstrual cramps.",
+            "Adults take 1-2 tablets every 4-6 hours.\nDo not take more than 8 tablets a day.",
+            "Consult a doctor before use if you have liver disease or drink 3 or more alcoholic drinks every day.\nDo not take with other fever reducers or pain relievers.",
+            "Long-term use with anticoagulants such as warfarin may increase the risk of bleeding.",
+            "Rarely, rash, itching or nausea may occur.\nStop taking it and consult a doctor or pharmacist if you notice any unusual reaction.",
+            "Store at room temperature away from moisture and light, out of the reach of children.");
+    private static final PrescriptionDetails.Labels LABELS = new PrescriptionDetails.Labels(
+            "Medicine name", "Efficacy", "Usage", "Precautions", "Drug interactions", "Side effects", "Storage");
+    private static final String TITLE = "Medicines for pain and fever relief";
+    private static final String SUMMARY = "Relieves pain and fever";
+
+    private static final String LANGUAGE = "english";
+    private static final List<String> MEDICINES = List.of(
+            "타이레놀정500밀리그램", "아모잘탄정5/50밀리그램", "리피토정10밀리그램", "란스톤엘에프디티정15밀리그램",
+            "뮤코스타정100밀리그램", "씨잘정5밀리그램", "코대원정", "록소닌정");
+
+    @Param({"1", "3", "8"})
+    int medicines;
+
+    @Param({"single", "parallel", "structured"})
+    String mode;
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private Scheduler scheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private LlmGateway llmGateway;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 모의 서버가 보내는 응답 본문 (센티넬 섹션 이름 → 내용, structured JSON)
+    private final Map<String, String> sectionContents = new LinkedHashMap<>();
+    private String structuredContent;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tokens {
+        public double promptTokens;
+        public double completionTokens;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<PrescriptionDetails.Medicine> medicineList = MEDICINES.subList(0, medicines).stream()
+                .map(name -> new PrescriptionDetails.Medicine(name, name, SUMMARY, DETAILS_KO, DETAILS_EN))
+                .toList();
+        PrescriptionDetails details = new PrescriptionDetails(TITLE, LABELS, medicineList);
+        MedicineExplanationService.Contents rendered = PrescriptionRenderer.render(details);
+        String lang = LANGUAGE.toUpperCase();
+        sectionContents.put("KO", rendered.koreanContent());
+        sectionContents.put(lang, rendered.content());
+        sectionContents.put("KO_MD", rendered.koreanContentMd());
+        sectionContents.put(lang + "_MD", rendered.contentMd());
+        sectionContents.put("TITLE", rendered.title());
+        sectionContents.put("SUMMARY", String.join("\n", Collections.nCopies(medicines, SUMMARY)));
+        structuredContent = objectMapper.writeValueAsString(details);
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/v1/chat/completions", (request, response) -> request.receive().aggregate().asString()
+                        .flatMap(this::complete)
+                        .flatMap(body -> response.header("Content-Type", "application/json").sendString(Mono.just(body)).then())))
+                .bindNow();
+
+        AiHttpClientProperties.Pool pool = new AiHttpClientProperties.Pool();
+        connectionProvider = OpenAiClientConfig.connectionProvider("benchmark", pool);
+        WebClient webClient = OpenAiClientConfig.webClientBuilder("http://127.0.0.1:" + server.port() + "/v1",
+                        OpenAiClientConfig.httpClient(connectionProvider, pool))
+                .build();
+        scheduler = Schedulers.newBoundedElastic(32, 1000, "benchmark-blocking");
+        meterRegistry = new SimpleMeterRegistry();
+        LlmRateLimiter rateLimiter = new LlmRateLimiter(new LlmRateLimitProperties(), objectMapper, meterRegistry);
+        AiCircuitBreakers aiCircuitBreakers = new AiCircuitBreakers(CircuitBreakerRegistry.ofDefaults(),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMinutes(1)).build()));
+        llmGateway = new LlmGateway(webClient, webClient, scheduler, objectMapper, rateLimiter, aiCircuitBreakers, meterRegistry);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public String generateDetails(Tokens tokens) {
+        double promptBefore = counted("prompt");
+        double completionBefore = counted("completion");
+
+        String medicineNames = String.join("\n", MEDICINES.subList(0, medicines));
+        String fullContent;
+        if ("structured".equals(mode)) {
+            // 서비스는 json_schema 를 보내지만 모의 서버에는 응답 형식만 알리면 된다
+            String json = llmGateway.chat(AiCircuitBreakers.PRESCRIPTION_DETAILS, Map.of(
+                            "model", "gpt-4o-mini",
+                            "messages", List.of(Map.of("role", "user", "content", PrescriptionPrompts.structured(medicineNames, LANGUAGE))),
+                            "response_format", Map.of("type", "json_object")))
+                    .block(Duration.ofMinutes(1));
+            fullContent = render(json);
+        } else {
+            List<String> prompts = "single".equals(mode)
+                    ? List.of(PrescriptionPrompts.details(medicineNames, LANGUAGE))
+                    : Arrays.stream(PrescriptionPrompts.Section.values())
+                            .map(section -> PrescriptionPrompts.section(section, medicineNames, LANGUAGE))
+                            .toList();
+            fullContent = Flux.fromIterable(prompts)
+                    .flatMapSequential(prompt -> llmGateway.chat(AiCircuitBreakers.PRESCRIPTION_DETAILS, Map.of(
+                            "model", "gpt-4o-mini",
+                            "messages", List.of(Map.of("role", "user", "content", prompt)))))
+                    .collect(Collectors.joining("\n"))
+                    .block(Duration.ofMinutes(1));
+        }
+
+        tokens.promptTokens += counted("prompt") - promptBefore;
+        tokens.completionTokens += counted("completion") - completionBefore;
+        return fullContent;
+    }
+
+    private String render(String json) {
+        try {
+            MedicineExplanationService.Contents contents = PrescriptionRenderer.render(objectMapper.readValue(json, PrescriptionDetails.class));
+            return String.join("\n", contents.koreanContent(), contents.content(), contents.koreanContentMd(), contents.contentMd(), contents.title());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double counted(String type) {
+        return meterRegistry.find("llm.tokens").tag("type", type).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    // 프롬프트의 출력 예시에 있는 섹션만큼 출력을 만들어 생성 시간만큼 늦게 응답
+    private Mono<String> complete(String requestJson) {
+        try {
+            JsonNode request = objectMapper.readTree(requestJson);
+            String prompt = request.path("messages").path(0).path("content").asText();
+            if (request.has("response_format")) {
+                return respond(prompt, structuredContent);
+            }
+
+            StringBuilder content = new StringBuilder();
+            for (Map.Entry<String, String> section : sectionContents.entrySet()) {
+                if (prompt.contains("<<<BEGIN_" + section.getKey() + ">>>")) {
+                    content.append("<<<BEGIN_").append(section.getKey()).append(">>>\n")
+                            .append(section.getValue())
+                            .append("\n<<<END_").append(section.getKey()).append(">>>\n");
+                }
+            }
+            return respond(prompt, content.toString());
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Mono<String> respond(String prompt, String content) throws Exception {
+        int completionTokens = estimateTokens(content);
+        Map<String, Object> response = Map.of(
+                "choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content))),
+                "usage", Map.of("prompt_tokens", estimateTokens(prompt), "completion_tokens", completionTokens));
+        long generationMillis = TIME_TO_FIRST_TOKEN.toMillis() + completionTokens * 1000L / TOKENS_PER_SECOND;
+        return Mono.delay(Duration.ofMillis(generationMillis)).thenReturn(objectMapper.writeValueAsString(response));
+    }
+
+    // 영어는 약 4자, 한글은 약 1.3자, JSON 구두점은 1~3자당 1토큰에 해당한다
+    private static int estimateTokens(String text) {
+        return Math.max(1, text.getBytes(StandardCharsets.UTF_8).length / 4);
+    }
+}
@@ -0,0 +1,174 @@
+package cosacosa.medimate.benchmark;
+
+import cosacosa.medimate.service.SentinelStreamParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 처방전 응답(5개 센티넬 섹션 + SUMMARY) 파싱 비교.
+ * regex: 기존 parseAiResponse / parseSummaries - 호출마다 Pattern 을 컴파일하고 lazy 그룹 5개로 전체를 매칭
+ * parser: SentinelStreamParser.parse - 한 번 훑어 섹션을 모두 모은다
+ * parserStreamed: 같은 응답을 스트리밍 조각(약 16자) 단위로 feed (SSE 경로, 이벤트 생성 포함)
+ * shape: wellFormed (정상), missingTitleEnd (END_TITLE 누락 - 정규식은 실패할 때까지 되짚는다), noMarkers (센티넬 없음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentinelParserBenchmark {
+
+    private static final String LANGUAGE = "english";
+    private static final Pattern SUMMARY_PATTERN = Pattern.compile("(?s)<<<BEGIN_SUMMARY>>>\\s*(.*?)\\s*<<<END_SUMMARY>>>");
+    private static final int CHUNK_LENGTH = 16;
+
+    @Param({"10", "50"})
+    int kilobytes;
+
+    @Param({"wellFormed", "missingTitleEnd", "noMarkers"})
+    String shape;
+
+    private String response;
+    private List<String> chunks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        response = switch (shape) {
+            case "missingTitleEnd" -> fixture(kilobytes * 1024).replace("<<<END_TITLE>>>", "");
+            case "noMarkers" -> fixture(kilobytes * 1024).replaceAll("<<<[A-Z_]+>>>", "");
+            default -> fixture(kilobytes * 1024);
+        };
+        chunks = new ArrayList<>();
+        for (int i = 0; i < response.length(); i += CHUNK_LENGTH) {
+            chunks.add(response.substring(i, Math.min(response.length(), i + CHUNK_LENGTH)));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        blackhole.consume(legacyParseAiResponse(response, LANGUAGE));
+        blackhole.consume(legacyParseSummaries(response));
+    }
+
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        SentinelStreamParser.Sections sections = SentinelStreamParser.parse(response);
+        String lang = LANGUAGE.toUpperCase();
+        blackhole.consume(sections.get("KO"));
+        blackhole.consume(sections.get(lang));
+        blackhole.consume(sections.get("KO_MD"));
+        blackhole.consume(sections.get(lang + "_MD"));
+        blackhole.consume(sections.get("TITLE"));
+        blackhole.consume(sections.get("SUMMARY").lines().map(String::strip).filter(line -> !line.isEmpty()).toList());
+        blackhole.consume(sections.missing(List.of("KO", lang, "KO_MD", lang + "_MD", "TITLE")));
+    }
+
+    @Benchmark
+    public void parserStreamed(Blackhole blackhole) {
+        SentinelStreamParser parser = new SentinelStreamParser();
+        for (String chunk : chunks) {
+            blackhole.consume(parser.feed(chunk));
+        }
+        blackhole.consume(parser.finish());
+        blackhole.consume(parser.sections());
+    }
+
+    // 변경 전 PrescriptionService.parseAiResponse
+    private static List<String> legacyParseAiResponse(String text, String language) {
+        String content = "";
+        String koreanContent;
+        String koreanContentMd = "";
+        String contentMd = "";
+        String title = "";
+        Pattern pattern = Pattern.compile(
+                String.format("(?s)<<<BEGIN_KO>>>\\s*(.*?)\\s*<<<END_KO>>>.*?<<<BEGIN_%1$s>>>\\s*(.*?)\\s*<<<END_%1$s>>>.*?<<<BEGIN_KO_MD>>>\\s*(.*?)\\s*<<<END_KO_MD>>>.*?<<<BEGIN_%1$s_MD>>>\\s*(.*?)\\s*<<<END_%1$s_MD>>>.*?<<<BEGIN_TITLE>>>\\s*(.*?)\\s*<<<END_TITLE>>>", language.toUpperCase())
+        );
+        Matcher matcher = pattern.matcher(text.trim());
+        if (matcher.find()) {
+            koreanContent = matcher.group(1).trim();
+            content = matcher.group(2).trim();
+            koreanContentMd = matcher.group(3).trim();
+            contentMd = matcher.group(4).trim();
+            title = matcher.group(5).trim();
+        } else {
+            koreanContent = text.trim();
+        }
+        return List.of(content, koreanContent, contentMd, koreanContentMd, title);
+    }
+
+    // 변경 전 PrescriptionService.parseSummaries
+    private static List<String> legacyParseSummaries(String text) {
+        Matcher matcher = SUMMARY_PATTERN.matcher(text);
+        if (!matcher.find()) return List.of();
+        return matcher.group(1).lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+    }
+
+    // 약품 수를 늘려 targetLength 글자 이상인 응답을 만든다
+    private static String fixture(int targetLength) {
+        for (int medicines = 1; ; medicines++) {
+            String text = response(medicines);
+            if (text.length() >= targetLength) {
+                return text;
+            }
+        }
+    }
+
+    private static String response(int medicines) {
+        String lang = LANGUAGE.toUpperCase();
+        StringBuilder ko = new StringBuilder();
+        StringBuilder en = new StringBuilder();
+        StringBuilder koMd = new StringBuilder();
+        StringBuilder enMd = new StringBuilder();
+        StringBuilder summary = new StringBuilder();
+        for (int i = 1; i <= medicines; i++) {
+            if (i > 1) {
+                ko.append("\n");
+                en.append("\n");
+                koMd.append("\n");
+                enMd.append("\n");
+            }
+            ko.append("<의약품명: 타이레놀정500밀리그램 ").append(i).append(">\n")
+                    .append("[🎯효능]\n\t두통, 치통, 생리통 등 가벼운 통증을 줄이고 열을 내립니다.\n\t\n")
+                    .append("[🕒사용법]\n\t성인은 1회 1~2정, 1일 3~4회 필요 시 복용합니다. 4시간 이상 간격을 두세요.\n\t\n")
+                    .append("[⚠️주의사항]\n\t하루 최대 4,000mg 을 넘기지 마세요. 술을 마시는 경우 간 손상 위험이 커집니다.\n\t\n")
+                    .append("[🔄약물 상호작용]\n\t와파린과 같이 복용하면 출혈 위험이 높아질 수 있습니다. 다른 해열진통제와 중복 복용하지 마세요.\n\t\n")
+                    .append("[🚨부작용]\n\t드물게 발진, 가려움, 구역이 나타날 수 있습니다.\n\t\n")
+                    .append("[📦보관법]\n\t실온(1~30℃)에서 습기를 피해 보관합니다.\n");
+            en.append("<Medicine name: Tylenol 500mg ").append(i).append(">\n")
+                    .append("[🎯Efficacy]\n\tRelieves mild pain such as headache, toothache and menstrual pain, and reduces fever.\n\t\n")
+                    .append("[🕒Usage]\n\tAdults take 1-2 tablets 3-4 times a day as needed, at least 4 hours apart.\n\t\n")
+                    .append("[⚠️Precautions]\n\tDo not exceed 4,000mg per day. Drinking alcohol increases the risk of liver damage.\n\t\n")
+                    .append("[🔄Drug interactions]\n\tTaking it with warfarin may increase bleeding risk. Do not combine with other fever reducers.\n\t\n")
+                    .append("[🚨Side effects]\n\tRarely, rash, itching or nausea may occur.\n\t\n")
+                    .append("[📦Storage]\n\tStore at room temperature (1-30°C) away from moisture.\n");
+            koMd.append("# 💊 의약품명: 타이레놀정500밀리그램 ").append(i).append("\n\n")
+                    .append("## 🎯 효능\n두통, 치통, 생리통 등 가벼운 통증을 줄이고 열을 내립니다.\n\n")
+                    .append("## 🕒 사용법\n성인은 1회 1~2정, 1일 3~4회 필요 시 복용합니다.\n\n")
+                    .append("## ⚠️ 주의사항\n하루 최대 4,000mg 을 넘기지 마세요.\n\n")
+                    .append("## 🔄 약물 상호작용\n와파린과 같이 복용하면 출혈 위험이 높아질 수 있습니다.\n\n")
+                    .append("## 🚨 부작용\n드물게 발진, 가려움, 구역이 나타날 수 있습니다.\n\n")
+                    .append("## 📦 보관법\n실온에서 습기를 피해 보관합니다.\n");
+            enMd.append("# 💊 Medicine name: Tylenol 500mg ").append(i).append("\n\n")
+                    .append("## 🎯 Efficacy\nRelieves mild pain and reduces fever.\n\n")
+                    .append("## 🕒 Usage\nAdults take 1-2 tablets 3-4 times a day as needed.\n\n")
+                    .append("## ⚠️ Precautions\nDo not exceed 4,000mg per day.\n\n")
+                    .append("## 🔄 Drug interactions\nTaking it with warfarin may increase bleeding risk.\n\n")
+                    .append("## 🚨 Side effects\nRarely, rash, itching or nausea may occur.\n\n")
+                    .append("## 📦 Storage\nStore at room temperature away from moisture.\n");
+            summary.append("Relieves pain and fever\n");
+        }
+        return "<<<BEGIN_KO>>>\n" + ko + "<<<END_KO>>>\n\n"
+                + "<<<BEGIN_" + lang + ">>>\n" + en + "<<<END_" + lang + ">>>\n"
+                + "<<<BEGIN_KO_MD>>>\n" + koMd + "<<<END_KO_MD>>>\n"
+                + "<<<BEGIN_" + lang + "_MD>>>\n" + enMd + "<<<END_" + lang + "_MD>>>\n"
+                + "<<<BEGIN_TITLE>>>\nPain and fever relief\n<<<END_TITLE>>>\n"
+                + "<<<BEGIN_SUMMARY>>>\n" + summary + "<<<END_SUMMARY>>>\n";
+    }
+}
@@ -0,0 +1,152 @@
+package cosacosa.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.PrecheckAiProperties;
+import cosacosa.medimate.dto.ChatMessageResponse;
+import cosacosa.medimate.dto.PrecheckRequestDto;
+import cosacosa.medimate.service.AiPrecheckService;
+import cosacosa.medimate.service.MedicineExplanationService;
+import cosacosa.medimate.service.PrescriptionDetails;
+import cosacosa.medimate.service.PrescriptionPrompts;
+import cosacosa.medimate.service.PrescriptionRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 서비스 계층에서 요청마다 반복되는 CPU 작업 (외부 호출 제외). 실제 크기의 입력으로 회귀를 숫자로 확인한다.
+ * 응답 파싱은 SentinelParserBenchmark, Upstage 요청 직렬화는 UpstageRequestBenchmark 참고.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceHotPathBenchmark {
+
+    private static final String LANGUAGE = "english";
+    private static final String MEDICINE_NAMES = String.join("\n",
+            "타이레놀정500밀리그램", "아모잘탄정5/50밀리그램", "리피토정10밀리그램", "란스톤엘에프디티정15밀리그램", "뮤코스타정100밀리그램");
+
+    // Spring Boot 기본 설정과 같은 ObjectMapper (JavaTimeModule 등록)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private AiPrecheckService aiPrecheckService;
+    private PrecheckRequestDto precheckRequest;
+    private String precheckResponse;
+    private ChatMessageResponse chatMessage;
+    private List<ChatMessageResponse> chatPage;
+    private PrescriptionDetails prescriptionDetails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        aiPrecheckService = new AiPrecheckService(null, new PrecheckAiProperties());
+        precheckRequest = PrecheckRequestDto.builder()
+                .name("John Smith")
+                .age(34)
+                .gender("M")
+                .nationality("United States")
+                .visitPurpose("Symptom consultation")
+                .description("I've had a throbbing headache on the right side for three days, worse in the morning. "
+                        + "I also feel \"dizzy\" when standing up and slightly nauseous after meals. "
+                        + "I took ibuprofen twice yesterday which helped for a few hours, but the pain came back. "
+                        + "No fever. I have been sleeping poorly because of work stress.")
+                .build();
+        precheckResponse = """
+                {
+                  "title": "Three-day right-sided headache with dizziness and nausea",
+                  "symptomParagraph": "The patient reports a throbbing right-sided headache that began three days ago and is worse in the morning.\\nHe also experiences dizziness on standing and mild nausea after meals. Ibuprofen taken twice yesterday provided temporary relief for a few hours before the pain returned. No fever is reported, and sleep has been poor due to work stress.",
+                  "koreanSymptomParagraph": "환자는 3일 전부터 시작된 오른쪽 욱신거리는 두통을 호소하며 아침에 더 심합니다.\\n일어설 때 어지러움과 식후 가벼운 메스꺼움이 있습니다. 어제 이부프로펜을 두 번 복용하여 몇 시간 동안 호전되었으나 통증이 다시 시작되었습니다. 발열은 없으며 업무 스트레스로 수면이 부족합니다.",
+                  "detectedLanguage": "en",
+                  "nationality": "American",
+                  "translatedNationality": "미국",
+                  "translatedVisitPurpose": "Symptom consultation"
+                }
+                """;
+
+        LocalDateTime now = LocalDateTime.of(2025, 8, 20, 14, 30, 15);
+        chatMessage = ChatMessageResponse.builder()
+                .id(1_234_567L)
+                .sender("user")
+                .message("I've had a headache for three days and it gets worse in the morning.")
+                .koreanMessage("3일 동안 두통이 있었고 아침에 더 심해져요.")
+                .createdAt(now)
+                .roomId(42L)
+                .build();
+        chatPage = IntStream.range(0, 50)
+                .mapToObj(i -> ChatMessageResponse.builder()
+                        .id(1_234_567L - i)
+                        .sender(i % 2 == 0 ? "user" : "doctor")
+                        .message("I've had a headache for three days and it gets worse in the morning.")
+                        .koreanMessage("3일 동안 두통이 있었고 아침에 더 심해져요.")
+                        .createdAt(now.minusMinutes(i))
+                        .roomId(42L)
+                        .translationPending(i % 10 == 0)
+                        .build())
+                .toList();
+
+        PrescriptionDetails.Sections korean = new PrescriptionDetails.Sections(
+                "두통, 치통, 생리통 등 가벼운 통증을 줄이고 열을 내립니다.",
+                "성인은 1회 1~2정, 1일 3~4회 필요 시 복용합니다.\n4시간 이상 간격을 두세요.",
+                "하루 최대 4,000mg 을 넘기지 마세요.\n술을 마시는 경우 간 손상 위험이 커집니다.",
+                "와파린과 같이 복용하면 출혈 위험이 높아질 수 있습니다.",
+                "드물게 발진, 가려움, 구역이 나타날 수 있습니다.",
+                "실온(1~30℃)에서 습기를 피해 보관합니다.");
+        PrescriptionDetails.Sections translated = new PrescriptionDetails.Sections(
+                "Relieves mild pain such as headache, toothache and menstrual pain, and reduces fever.",
+                "Adults take 1-2 tablets 3-4 times a day as needed.\nKeep at least 4 hours between doses.",
+                "Do not exceed 4,000mg per day.\nDrinking alcohol increases the risk of liver damage.",
+                "Taking it with warfarin may increase bleeding risk.",
+                "Rarely, rash, itching or nausea may occur.",
+                "Store at room temperature (1-30°C) away from moisture.");
+        prescriptionDetails = new PrescriptionDetails(
+                "Pain, blood pressure and cholesterol management",
+                new PrescriptionDetails.Labels("Medicine name", "Efficacy", "Usage", "Precautions", "Drug interactions", "Side effects", "Storage"),
+                MEDICINE_NAMES.lines()
+                        .map(name -> new PrescriptionDetails.Medicine(name, name, "Relieves pain and fever", korean, translated))
+                        .toList());
+    }
+
+    @Benchmark
+    public String prescriptionDetailsPrompt() {
+        return PrescriptionPrompts.details(MEDICINE_NAMES, LANGUAGE);
+    }
+
+    @Benchmark
+    public void prescriptionSectionPrompts(Blackhole blackhole) {
+        Arrays.stream(PrescriptionPrompts.Section.values())
+                .forEach(section -> blackhole.consume(PrescriptionPrompts.section(section, MEDICINE_NAMES, LANGUAGE)));
+    }
+
+    @Benchmark
+    public String prescriptionStructuredPrompt() {
+        return PrescriptionPrompts.structured(MEDICINE_NAMES, LANGUAGE);
+    }
+
+    @Benchmark
+    public MedicineExplanationService.Contents prescriptionRender() {
+        return PrescriptionRenderer.render(prescriptionDetails);
+    }
+
+    @Benchmark
+    public AiPrecheckService.AiResultFull precheckParseResult() {
+        return aiPrecheckService.parseResult(precheckRequest, precheckResponse);
+    }
+
+    @Benchmark
+    public byte[] chatMessageJson() throws Exception {
+        return objectMapper.writeValueAsBytes(chatMessage);
+    }
+
+    @Benchmark
+    public byte[] chatMessagePageJson() throws Exception {
+        return objectMapper.writeValueAsBytes(chatPage);
+    }
+}
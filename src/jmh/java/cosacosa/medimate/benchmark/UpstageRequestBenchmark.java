@@ -0,0 +1,141 @@
+package cosacosa.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.AiHttpClientProperties;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import cosacosa.medimate.config.OpenAiClientConfig;
+import cosacosa.medimate.config.PrescriptionGenerationProperties;
+import cosacosa.medimate.config.PrescriptionJobProperties;
+import cosacosa.medimate.service.AiCircuitBreakers;
+import cosacosa.medimate.service.LlmGateway;
+import cosacosa.medimate.service.LlmRateLimiter;
+import cosacosa.medimate.service.PrescriptionService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstage 약품명 추출 요청 보내기 (처방전 사진 크기별). 로컬 모의 서버는 본문을 끝까지 읽고 바로 응답한다.
+ * streaming: 현재 방식 - PrescriptionService.extractMedicineNames 가 파일에서 읽는 대로 base64 청크를 만들어 보낸다
+ * inline: 이전 방식 - 이미지 전체를 읽어 data URI 문자열로 넣고 Jackson 으로 한 번에 직렬화해 같은 모의 서버로 보낸다
+ * -prof gc 로 실행하면 요청당 할당량(gc.alloc.rate.norm)도 비교할 수 있다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpstageRequestBenchmark {
+
+    private static final String EXTRACTION_URI = "/v1/information-extraction/chat/completions";
+    private static final String RESPONSE = """
+            {"choices":[{"message":{"role":"assistant","content":"{\\"medicine\\":[\\"타이레놀정500밀리그램\\"]}"}}]}""";
+
+    @Param({"512", "4096"})
+    int kilobytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private Scheduler scheduler;
+    private WebClient webClient;
+    private PrescriptionService prescriptionService;
+    private Path image;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] bytes = new byte[kilobytes * 1024];
+        ThreadLocalRandom.current().nextBytes(bytes); // 압축된 JPEG 처럼 엔트로피가 높은 내용
+        image = Files.createTempFile("upstage-benchmark", ".jpg");
+        Files.write(image, bytes);
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post(EXTRACTION_URI, (request, response) -> request.receive().then()
+                        .then(response.header("Content-Type", "application/json").sendString(Mono.just(RESPONSE)).then())))
+                .bindNow();
+
+        AiHttpClientProperties.Pool pool = new AiHttpClientProperties.Pool();
+        connectionProvider = OpenAiClientConfig.connectionProvider("benchmark", pool);
+        webClient = OpenAiClientConfig.webClientBuilder("http://127.0.0.1:" + server.port(),
+                        OpenAiClientConfig.httpClient(connectionProvider, pool))
+                .build();
+        scheduler = Schedulers.newBoundedElastic(8, 100, "benchmark-blocking");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AiCircuitBreakers aiCircuitBreakers = new AiCircuitBreakers(CircuitBreakerRegistry.ofDefaults(),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMinutes(1)).build()));
+        LlmGateway llmGateway = new LlmGateway(webClient, webClient, scheduler, objectMapper,
+                new LlmRateLimiter(new LlmRateLimitProperties(), objectMapper, meterRegistry), aiCircuitBreakers, meterRegistry);
+        // 추출 경로에서 쓰지 않는 저장소 / 업로드 의존성은 null
+        prescriptionService = new PrescriptionService(null, null, null, llmGateway, scheduler,
+                objectMapper, new PrescriptionJobProperties(), new PrescriptionGenerationProperties(), meterRegistry);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connectionProvider.dispose();
+        server.disposeNow();
+        scheduler.dispose();
+        Files.deleteIfExists(image);
+    }
+
+    @Benchmark
+    public List<String> streaming() {
+        return prescriptionService.extractMedicineNames(image).block();
+    }
+
+    @Benchmark
+    public String inline() throws Exception {
+        String dataUri = "data:application/octet-stream;base64," + Base64.getEncoder().encodeToString(Files.readAllBytes(image));
+        byte[] body = objectMapper.writeValueAsBytes(inlineRequest(dataUri));
+        return webClient.post()
+                .uri(EXTRACTION_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    // 변경 전 createUpstageExtractionRequest 와 같은 형식 (이미지를 data URI 문자열로 넣는다)
+    private static Map<String, Object> inlineRequest(String dataUri) {
+        Map<String, Object> schema = Map.of(
+                "type", "object",
+                "properties", Map.of(
+                        "medicine", Map.of(
+                                "type", "array",
+                                "description", "처방전 사진에서 얻은 환자가 처방 받은 의약품들의 이름을 담은 리스트",
+                                "items", Map.of("type", "string")
+                        )
+                )
+        );
+        return Map.of(
+                "model", "information-extract",
+                "messages", List.of(Map.of("role", "user", "content", List.of(
+                        Map.of("type", "image_url", "image_url", Map.of("url", dataUri))))),
+                "response_format", Map.of(
+                        "type", "json_schema",
+                        "json_schema", Map.of("name", "document_schema", "schema", schema)));
+    }
+}
@@ -0,0 +1,31 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "ai.http")
+public class AiHttpClientProperties {
+    private Pool openai = new Pool();
+    private Pool upstage = new Pool();
+
+    // 업스트림별 Reactor Netty 커넥션 풀 설정
+    @Getter @Setter
+    public static class Pool {
+        private int maxConnections = 64;                              // 동시에 열 수 있는 커넥션 수
+        private int pendingAcquireMaxCount = 256;                     // 커넥션을 기다리는 요청 수 상한 (넘으면 바로 실패)
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+        private Duration maxIdleTime = Duration.ofSeconds(30);        // 업스트림/LB 가 먼저 끊기 전에 정리
+        private Duration maxLifeTime = Duration.ofMinutes(5);         // DNS 변경이 반영되도록 주기적으로 교체
+        private Duration evictInBackground = Duration.ofSeconds(30);  // 유휴/만료 커넥션 정리 주기
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(60);    // 응답 읽기 사이의 최대 대기 (스트리밍 포함)
+        private Duration writeTimeout = Duration.ofSeconds(60);       // 요청 본문 한 번의 쓰기가 끝나기까지의 최대 대기 (큰 이미지 업로드 포함)
+        private boolean http2 = false;                                // true 면 ALPN 으로 HTTP/2 협상 (실패 시 HTTP/1.1)
+    }
+}
@@ -0,0 +1,42 @@
+package cosacosa.medimate.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor prescriptionJobExecutor(PrescriptionJobProperties props, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("prescription-job-");
+        // 가상 스레드 모드에서도 풀 크기/큐 용량이 동시 작업 수의 상한 역할을 한다.
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setCorePoolSize(props.getCorePoolSize());
+        executor.setMaxPoolSize(props.getMaxPoolSize());
+        executor.setQueueCapacity(props.getQueueCapacity()); // 큐가 차면 TaskRejectedException
+        // 진행 중이던 작업은 DB 상태로 남아 재시작 시 이어서 처리되므로 종료를 기다리지 않는다.
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // AI 응답 이후의 JPA / S3 같은 블로킹 작업을 Netty 이벤트 루프 밖에서 처리하기 위한 스케줄러
+    // spring.threads.virtual.enabled=true 이면 작업마다 가상 스레드를 사용한다.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtual-blocking");
+        }
+        return Schedulers.boundedElastic();
+    }
+}
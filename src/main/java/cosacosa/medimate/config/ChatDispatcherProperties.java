@@ -0,0 +1,16 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "chat.dispatcher")
+public class ChatDispatcherProperties {
+    private int stripes = 0; // 방 결과 처리 스레드 수, 0 이면 CPU 코어 수
+    private Duration shutdownTimeout = Duration.ofSeconds(10); // 종료 시 진행 중인 번역과 남은 결과 처리를 기다리는 최대 시간
+}
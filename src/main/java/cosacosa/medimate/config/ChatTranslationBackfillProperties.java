@@ -0,0 +1,17 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "chat.translation-backfill")
+public class ChatTranslationBackfillProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(30); // 번역이 밀린 메세지를 확인하는 주기
+    private int batchSize = 50;                         // 한 번에 번역할 최대 메세지 수
+}
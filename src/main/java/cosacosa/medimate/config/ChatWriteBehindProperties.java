@@ -0,0 +1,19 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "chat.write-behind")
+public class ChatWriteBehindProperties {
+    private boolean enabled = true;                         // false 이면 메세지마다 바로 저장
+    private Duration flushInterval = Duration.ofMillis(200); // 모아둔 메세지를 저장하는 주기
+    private int maxBatchSize = 500;                         // 한 트랜잭션에 저장할 최대 메세지 수
+    private int maxPending = 10_000;                        // 저장 대기 메세지가 이보다 많으면 바로 저장 (메모리 상한)
+    private int maxAttempts = 3;                            // 제약 조건 위반 등 재시도해도 안 되는 메세지의 최대 시도 횟수
+}
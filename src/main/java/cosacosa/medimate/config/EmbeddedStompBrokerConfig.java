@@ -0,0 +1,36 @@
+package cosacosa.medimate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 로컬 테스트용 내장 STOMP 브로커 (ActiveMQ Artemis).
+ * embedded-broker 프로필로 띄운 인스턴스가 브로커를 함께 실행하고, 다른 인스턴스는 STOMP_BROKER_MODE=relay 로 여기에 연결한다.
+ * Artemis 는 developmentOnly 의존성이라 bootRun 에서만 클래스패스에 있고, 배포 jar 에서는 이 설정을 건너뛴다.
+ */
+@Configuration
+@Profile("embedded-broker")
+@ConditionalOnClass(name = "org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ")
+@Slf4j
+public class EmbeddedStompBrokerConfig {
+
+    @Bean(destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker(StompBrokerProperties props) throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.addAcceptorConfiguration("stomp",
+                "tcp://" + props.getRelayHost() + ":" + props.getRelayPort() + "?protocols=STOMP");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        log.info("Embedded STOMP broker listening on {}:{}", props.getRelayHost(), props.getRelayPort());
+        return broker;
+    }
+}
@@ -0,0 +1,35 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "llm.rate-limit")
+public class LlmRateLimitProperties {
+    private int maxRetries = 3;                              // 429 / 5xx 재시도 횟수
+    private Duration initialBackoff = Duration.ofMillis(500); // 첫 재시도 대기 (이후 2배씩, jitter 적용)
+    private Duration maxBackoff = Duration.ofSeconds(20);
+    private int defaultCompletionTokens = 1000;              // max_tokens 가 없는 요청의 응답 토큰 추정치
+    private Duration defaultDeadline = Duration.ofMinutes(2); // deadlines 에 없는 호출 지점의 기한
+    private Map<String, Duration> deadlines = new HashMap<>(); // 호출 지점(AiCircuitBreakers 이름)별 대기열 대기 + 재시도 대기 기한
+    private Limit defaultLimit = new Limit();                // limits 에 없는 provider:model 에 적용
+    private Map<String, Limit> limits = new HashMap<>();     // 키: "openai:gpt-4o" 형식
+
+    public Duration deadlineOf(String call) {
+        return deadlines.getOrDefault(call, defaultDeadline);
+    }
+
+    @Getter @Setter
+    public static class Limit {
+        private int maxConcurrency = 8;   // 동시에 진행 중인 요청 수
+        private int requestsPerMinute = 0; // 0 이면 제한 없음
+        private int tokensPerMinute = 0;   // 0 이면 제한 없음
+    }
+}
@@ -1,7 +1,6 @@
 package cosacosa.medimate.config;
 
 import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -11,9 +10,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
-import java.time.Duration;
+import reactor.netty.resources.ConnectionProvider;
+
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Configuration
 public class OpenAiClientConfig {
@@ -30,34 +32,25 @@ public class OpenAiClientConfig {
     @Value("${UPSTAGE_API_KEY}")
     private String upstageApiKey;
 
+    // 풀 지표는 reactor.netty.connection.provider.* (name 태그: openai / upstage) 로 노출
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider(AiHttpClientProperties props) {
+        return connectionProvider("openai", props.getOpenai());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstageConnectionProvider(AiHttpClientProperties props) {
+        return connectionProvider("upstage", props.getUpstage());
+    }
+
     @Bean
-    public WebClient openAiWebClient() {
+    public WebClient openAiWebClient(ConnectionProvider openAiConnectionProvider, AiHttpClientProperties props) {
         if (apiKey == null || apiKey.isBlank()) {
             throw new IllegalStateException("환경변수 OPENAI_API_KEY가 설정되지 않았습니다.");
         }
 
-        HttpClient httpClient = HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-                .responseTimeout(Duration.ofSeconds(60))
-                .doOnConnected(conn -> {
-                    conn.addHandlerLast(new ReadTimeoutHandler(60, TimeUnit.SECONDS));
-                    conn.addHandlerLast(new WriteTimeoutHandler(60, TimeUnit.SECONDS));
-                })
-                .compress(true); // HTTP 응답 압축 허용
-
-        WebClient.Builder builder = WebClient.builder()
-                .baseUrl("https://api.openai.com/v1")
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE) // JSON 응답 명시
-                .exchangeStrategies(
-                        ExchangeStrategies.builder()
-                                .codecs(c -> c.defaultCodecs()
-                                        .maxInMemorySize(10 * 1024 * 1024) // 버퍼 최대 크기 10MB
-                                )
-                                .build()
-                );
+        WebClient.Builder builder = webClientBuilder("https://api.openai.com/v1", httpClient(openAiConnectionProvider, props.getOpenai()))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
 
         if (!orgId.isBlank()) {
             builder.defaultHeader("OpenAI-Organization", orgId);
@@ -69,33 +62,57 @@ public class OpenAiClientConfig {
     }
 
     @Bean
-    public WebClient upstageWebClient() {
+    public WebClient upstageWebClient(ConnectionProvider upstageConnectionProvider, AiHttpClientProperties props) {
         if (upstageApiKey == null || upstageApiKey.isBlank()) {
             throw new IllegalStateException("환경변수 UPSTAGE_API_KEY가 설정되지 않았습니다.");
         }
 
-        HttpClient httpClient = HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-                .responseTimeout(Duration.ofSeconds(60))
-                .doOnConnected(conn -> {
-                    conn.addHandlerLast(new ReadTimeoutHandler(60, TimeUnit.SECONDS));
-                    conn.addHandlerLast(new WriteTimeoutHandler(60, TimeUnit.SECONDS));
-                })
-                .compress(true);
+        return webClientBuilder("https://api.upstage.ai", httpClient(upstageConnectionProvider, props.getUpstage()))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + upstageApiKey)
+                .build();
+    }
+
+    public static ConnectionProvider connectionProvider(String name, AiHttpClientProperties.Pool pool) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .lifo() // 최근에 쓴 커넥션부터 재사용해 나머지는 유휴 정리 대상이 되도록
+                .metrics(true)
+                .build();
+    }
+
+    // 응답 대기는 요청 단위 responseTimeout 으로 제한하고, 쓰기 타임아웃 핸들러는 요청마다 붙인다
+    // (Connection.addHandlerLast 로 붙인 핸들러는 커넥션이 풀에 반환될 때 제거된다)
+    public static HttpClient httpClient(ConnectionProvider connectionProvider, AiHttpClientProperties.Pool pool) {
+        long writeTimeoutMillis = pool.getWriteTimeout().toMillis();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout())
+                .doOnRequest((request, conn) -> conn.addHandlerLast(new WriteTimeoutHandler(writeTimeoutMillis, TimeUnit.MILLISECONDS)))
+                .metrics(true, Function.identity())
+                .compress(true); // HTTP 응답 압축 허용
+        if (pool.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        return httpClient;
+    }
 
+    public static WebClient.Builder webClientBuilder(String baseUrl, HttpClient httpClient) {
         return WebClient.builder()
-                .baseUrl("https://api.upstage.ai")
+                .baseUrl(baseUrl)
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + upstageApiKey)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE) // JSON 응답 명시
                 .exchangeStrategies(
                         ExchangeStrategies.builder()
                                 .codecs(c -> c.defaultCodecs()
-                                        .maxInMemorySize(10 * 1024 * 1024)
+                                        .maxInMemorySize(10 * 1024 * 1024) // 버퍼 최대 크기 10MB
                                 )
                                 .build()
-                )
-                .build();
+                );
     }
 }
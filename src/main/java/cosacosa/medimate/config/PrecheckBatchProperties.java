@@ -0,0 +1,14 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "precheck.batch")
+public class PrecheckBatchProperties {
+    private int concurrency = 8; // 동시에 진행할 OpenAI 호출 수
+    private int maxItems = 100;  // 한 요청에 받을 수 있는 최대 문진 수
+}
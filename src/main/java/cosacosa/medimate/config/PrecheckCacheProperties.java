@@ -0,0 +1,16 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "precheck.cache")
+public class PrecheckCacheProperties {
+    private long maximumSize = 10_000;          // 캐시할 문진 상세 응답 최대 개수
+    private Duration ttl = Duration.ofHours(1); // 수정 이벤트를 놓치더라도 이 시간이 지나면 다시 읽는다
+}
@@ -0,0 +1,28 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "prescription.generation")
+public class PrescriptionGenerationProperties {
+    private Mode mode = Mode.STRUCTURED;       // 작업 / 동기 API 경로
+    private Mode streamMode = Mode.PARALLEL;   // SSE 경로. 조각 단위로 보낼 수 있는 센티넬 형식(single / parallel)만 가능
+    private String model = "gpt-4o-mini";
+
+    public void setStreamMode(Mode streamMode) {
+        if (streamMode == Mode.STRUCTURED) {
+            throw new IllegalArgumentException("prescription.generation.stream-mode must be single or parallel (structured output cannot stream deltas)");
+        }
+        this.streamMode = streamMode;
+    }
+
+    public enum Mode {
+        SINGLE,     // 한 번의 요청으로 모든 섹션을 순서대로 생성
+        PARALLEL,   // 섹션별 요청을 동시에 보내고 결과를 이어 붙임 (출력 토큰 생성 시간이 겹친다)
+        STRUCTURED  // 약품별 항목 내용만 JSON 으로 생성하고 본문 서식은 직접 만든다 (약품 설명을 한 언어당 한 번만 생성)
+    }
+}
@@ -0,0 +1,23 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "prescription.job")
+public class PrescriptionJobProperties {
+    private int corePoolSize = 4;
+    private int maxPoolSize = 8;
+    private int queueCapacity = 50;     // 가득 차면 신규 작업을 503으로 거절 (backpressure)
+    // 재시작 후 재개할 원본 이미지를 두는 디렉터리. 운영에서는 영구 볼륨(여러 인스턴스면 공유 볼륨)으로 지정한다
+    private String spoolDir = Paths.get(System.getProperty("java.io.tmpdir"), "medimate-jobs").toString();
+    private String ownerId = "node-0";  // 작업 임대에 기록하는 인스턴스 이름. 인스턴스마다 달라야 한다
+    private Duration leaseDuration = Duration.ofMinutes(2);      // heartbeat 가 끊기고 이 시간이 지나면 다른 인스턴스가 작업을 가져간다
+    private Duration heartbeatInterval = Duration.ofSeconds(30); // 임대 연장 및 만료된 작업 확인 주기
+}
@@ -0,0 +1,26 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "stomp.broker")
+public class StompBrokerProperties {
+    private Mode mode = Mode.SIMPLE;            // SIMPLE: 인스턴스 내부 브로커, RELAY: 외부 STOMP 브로커로 중계 (여러 인스턴스 운영 시)
+    private String relayHost = "localhost";
+    private int relayPort = 61613;
+    private String clientLogin = "guest";       // 클라이언트 세션마다 브로커에 연결할 때 사용하는 계정
+    private String clientPasscode = "guest";
+    private String systemLogin = "guest";       // 서버가 직접 메세지를 보낼 때 사용하는 공유 연결 계정
+    private String systemPasscode = "guest";
+    private String virtualHost;                 // RabbitMQ 사용 시 vhost (없으면 생략)
+    private Duration heartbeatSend = Duration.ofSeconds(10);    // 서버 → 클라이언트(브로커) heartbeat 간격, 0 이면 사용 안 함
+    private Duration heartbeatReceive = Duration.ofSeconds(10); // 클라이언트(브로커) → 서버 heartbeat 기대 간격
+
+    public enum Mode { SIMPLE, RELAY }
+}
@@ -0,0 +1,28 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "stomp.channel")
+public class StompChannelProperties {
+    private Pool inbound = new Pool();                                  // 클라이언트 → 서버 메세지 처리 스레드 풀
+    private Pool outbound = new Pool();                                 // 서버 → 클라이언트 전송 스레드 풀
+    private DataSize messageSizeLimit = DataSize.ofKilobytes(64);       // 수신 STOMP 메세지 최대 크기
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(512);   // 느린 클라이언트에 쌓아둘 수 있는 전송 버퍼
+    private Duration sendTimeLimit = Duration.ofSeconds(10);            // 한 클라이언트로의 전송이 이보다 오래 걸리면 세션 종료
+    private boolean preservePublishOrder = true;                        // 같은 세션으로 가는 메세지 순서 보장
+
+    @Getter @Setter
+    public static class Pool {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+        private int queueCapacity = 1000;
+    }
+}
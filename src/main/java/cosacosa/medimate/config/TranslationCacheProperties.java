@@ -0,0 +1,19 @@
+package cosacosa.medimate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "translation.cache")
+public class TranslationCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10_000;          // 메모리 캐시 최대 항목 수 (초과 시 LRU에 가깝게 제거)
+    private Duration ttl = Duration.ofHours(24); // 메모리 캐시 만료 시간
+    private int maxTextLength = 200;            // 이보다 긴 메세지는 재사용 가능성이 낮아 캐시하지 않음
+    private boolean persistentEnabled = false;  // MySQL 영속 캐시 사용 여부
+}
@@ -1,21 +1,67 @@
 package cosacosa.medimate.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final Environment environment;
+    private final StompBrokerProperties brokerProperties;
+    private final StompChannelProperties channelProperties;
+
+    // 내장 브로커 heartbeat 용 (STOMP 설정이 만드는 스케줄러라 순환 참조를 피하기 위해 지연 주입)
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
+        long heartbeatSend = brokerProperties.getHeartbeatSend().toMillis();
+        long heartbeatReceive = brokerProperties.getHeartbeatReceive().toMillis();
+
         // 1. 메시지 구독 요청의 prefix 설정 (메세지 브로커 활성화)
-        registry.enableSimpleBroker("/sub");
+        if (brokerProperties.getMode() == StompBrokerProperties.Mode.RELAY) {
+            // 외부 브로커(ActiveMQ Artemis 등)로 중계하면 다른 인스턴스에 연결된 구독자에게도 메세지가 전달된다
+            StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/sub")
+                    .setRelayHost(brokerProperties.getRelayHost())
+                    .setRelayPort(brokerProperties.getRelayPort())
+                    .setClientLogin(brokerProperties.getClientLogin())
+                    .setClientPasscode(brokerProperties.getClientPasscode())
+                    .setSystemLogin(brokerProperties.getSystemLogin())
+                    .setSystemPasscode(brokerProperties.getSystemPasscode())
+                    .setSystemHeartbeatSendInterval(heartbeatSend)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceive);
+            if (brokerProperties.getVirtualHost() != null) {
+                relay.setVirtualHost(brokerProperties.getVirtualHost());
+            }
+        } else {
+            registry.enableSimpleBroker("/sub")
+                    .setHeartbeatValue(new long[]{heartbeatSend, heartbeatReceive})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
         // 2. 메시지 발행 요청의 prefix 설정
         registry.setApplicationDestinationPrefixes("/pub");
+        registry.setPreservePublishOrder(channelProperties.isPreservePublishOrder());
     }
 
     @Override
@@ -23,4 +69,36 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // 3. STOMP WebSocket 연결을 위한 엔드포인트 설정
         registry.addEndpoint("/ws").setAllowedOrigins("*");
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit((int) channelProperties.getMessageSizeLimit().toBytes())
+                .setSendBufferSizeLimit((int) channelProperties.getSendBufferSizeLimit().toBytes())
+                .setSendTimeLimit((int) channelProperties.getSendTimeLimit().toMillis());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // 가상 스레드 모드에서는 STOMP 수신 메세지마다 가상 스레드를 사용
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stomp-inbound-");
+            executor.setVirtualThreads(true);
+            registration.executor(executor);
+            return;
+        }
+        StompChannelProperties.Pool pool = channelProperties.getInbound();
+        registration.taskExecutor()
+                .corePoolSize(pool.getCorePoolSize())
+                .maxPoolSize(pool.getMaxPoolSize())
+                .queueCapacity(pool.getQueueCapacity());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        StompChannelProperties.Pool pool = channelProperties.getOutbound();
+        registration.taskExecutor()
+                .corePoolSize(pool.getCorePoolSize())
+                .maxPoolSize(pool.getMaxPoolSize())
+                .queueCapacity(pool.getQueueCapacity());
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -28,9 +29,12 @@ public class ChatController {
         chatService.processMessage(chatMessage);
     }
 
-    @GetMapping("/api/chat/rooms/{roomId}")
-    public ResponseEntity<List<ChatMessageResponse>> getMessageList(@PathVariable Long roomId) {
-        List<ChatMessageResponse> result = chatService.readMessageList(roomId);
+    // 기존 경로는 가장 최근 페이지를 반환, 이전 메세지는 /messages?before={첫 메세지 id} 로 이어서 조회
+    @GetMapping({"/api/chat/rooms/{roomId}", "/api/chat/rooms/{roomId}/messages"})
+    public ResponseEntity<List<ChatMessageResponse>> getMessageList(@PathVariable Long roomId,
+                                                                    @RequestParam(required = false) Long before,
+                                                                    @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit) {
+        List<ChatMessageResponse> result = chatService.readMessagePage(roomId, before, limit);
         return ResponseEntity.ok(result);
     }
 
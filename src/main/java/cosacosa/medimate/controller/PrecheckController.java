@@ -1,16 +1,21 @@
 package cosacosa.medimate.controller;
 
-import cosacosa.medimate.domain.Precheck;
+import cosacosa.medimate.dto.PrecheckBatchResponseDto;
 import cosacosa.medimate.dto.PrecheckRequestDto;
 import cosacosa.medimate.dto.PrecheckResponseDto;
 import cosacosa.medimate.dto.PrecheckListItemResponseDto;
 import cosacosa.medimate.service.AiPrecheckService;
+import cosacosa.medimate.service.PrecheckBatchService;
 import cosacosa.medimate.service.PrecheckService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,25 +23,43 @@ import java.util.List;
 public class PrecheckController {
     private final PrecheckService service;
     private final AiPrecheckService aiService;
+    private final PrecheckBatchService batchService;
 
     // POST /api/precheck
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PrecheckResponseDto> create(@RequestBody PrecheckRequestDto req) {
-        AiPrecheckService.AiResultFull ai = aiService.generateTitleAndContent(req);
-        Precheck saved = service.saveWithAi(req, ai);
-        return ResponseEntity.ok(service.toCreateResponse(saved));
+    public CompletableFuture<ResponseEntity<PrecheckResponseDto>> create(@RequestBody PrecheckRequestDto req) {
+        return aiService.generateTitleAndContent(req)
+                .map(ai -> service.saveWithAi(req, ai))
+                .map(saved -> ResponseEntity.ok(service.toCreateResponse(saved)))
+                .toFuture();
+    }
+
+    // POST /api/precheck/batch : 여러 문진을 한 번에 등록하고 항목별 결과를 반환
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<PrecheckBatchResponseDto>> createBatch(@RequestBody List<PrecheckRequestDto> reqs) {
+        return batchService.createAll(reqs)
+                .map(ResponseEntity::ok)
+                .toFuture();
+    }
+
+    // POST /api/precheck/stream : 생성 중인 응답을 delta 이벤트로 보내고, 저장이 끝나면 done 이벤트로 결과 전달
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> createStream(@RequestBody PrecheckRequestDto req) {
+        return service.createStream(req);
     }
 
-    // GET /api/precheck
+    // GET /api/precheck?before={마지막 id}&limit=20
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<PrecheckListItemResponseDto>> list() {
-        return ResponseEntity.ok(service.list());
+    public ResponseEntity<List<PrecheckListItemResponseDto>> list(@RequestParam(required = false) Long before,
+                                                                  @RequestParam(defaultValue = "" + PrecheckService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(service.list(before, limit));
     }
 
     // GET /api/precheck/{precheckId}
     @GetMapping(value = "/{precheckId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PrecheckResponseDto> get(@PathVariable Long precheckId) {
-        Precheck precheck = service.get(precheckId);
-        return ResponseEntity.ok(service.toDetailResponse(precheck));
+    public CompletableFuture<ResponseEntity<PrecheckResponseDto>> get(@PathVariable Long precheckId) {
+        return service.detail(precheckId)
+                .map(ResponseEntity::ok)
+                .toFuture();
     }
 }
\ No newline at end of file
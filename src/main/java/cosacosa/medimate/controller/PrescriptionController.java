@@ -1,18 +1,24 @@
 package cosacosa.medimate.controller;
 
+import cosacosa.medimate.dto.PrescriptionJobResponse;
 import cosacosa.medimate.dto.PrescriptionListItemResponse;
 import cosacosa.medimate.dto.PrescriptionRequest;
 import cosacosa.medimate.dto.PrescriptionResponse;
+import cosacosa.medimate.service.PrescriptionJobService;
 import cosacosa.medimate.service.PrescriptionService;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.Response;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,23 +26,46 @@ import java.util.List;
 public class PrescriptionController {
 
     private final PrescriptionService prescriptionService;
+    private final PrescriptionJobService prescriptionJobService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<PrescriptionResponse> postPrescription(@ModelAttribute PrescriptionRequest form) {
+    public CompletableFuture<ResponseEntity<PrescriptionResponse>> postPrescription(@ModelAttribute PrescriptionRequest form) {
         try {
-            PrescriptionResponse result = prescriptionService.createPrescription(form);
-            return ResponseEntity.ok(result);
+            return prescriptionService.createPrescription(form)
+                    .thenApply(ResponseEntity::ok);
         } catch (IOException e) {
             // 콘솔에 에러 로그를 남겨서 원인을 파악하기 쉽게 합니다.
             e.printStackTrace();
             // 클라이언트에게는 서버 내부 오류가 발생했다고 알려줍니다.
-            return ResponseEntity.internalServerError().build();
+            return CompletableFuture.completedFuture(ResponseEntity.internalServerError().build());
         }
     }
 
+    // 스트리밍 모드: 진행 단계와 생성 중인 섹션을 SSE 로 전달하고 마지막 done 이벤트에 PrescriptionResponse 를 담는다
+    @PostMapping(value = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamPrescription(@ModelAttribute PrescriptionRequest form) throws IOException {
+        return prescriptionService.streamPrescription(form);
+    }
+
+    // 작업 모드: 즉시 202와 작업 id를 반환하고, 진행 상황은 폴링 또는 /sub/prescription/jobs/{jobId} 구독으로 확인
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<PrescriptionJobResponse> postPrescriptionJob(@ModelAttribute PrescriptionRequest form) throws IOException {
+        PrescriptionJobResponse result = prescriptionJobService.submit(form);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/prescription/jobs/" + result.getId()))
+                .body(result);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PrescriptionJobResponse> getPrescriptionJob(@PathVariable Long jobId) {
+        PrescriptionJobResponse result = prescriptionJobService.get(jobId);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping
-    public ResponseEntity<List<PrescriptionListItemResponse>> getPrescriptionList() {
-        List<PrescriptionListItemResponse> result = prescriptionService.readPrescriptionList();
+    public ResponseEntity<List<PrescriptionListItemResponse>> getPrescriptionList(@RequestParam(required = false) Long before,
+                                                                                  @RequestParam(defaultValue = "" + PrescriptionService.DEFAULT_PAGE_SIZE) int limit) {
+        List<PrescriptionListItemResponse> result = prescriptionService.readPrescriptionList(before, limit);
         return ResponseEntity.ok(result);
     }
 
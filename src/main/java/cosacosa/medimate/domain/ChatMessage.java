@@ -10,13 +10,13 @@ import java.time.ZoneId;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_chat_message_room_id", columnList = "chat_room_id, id"),
+        @Index(name = "idx_chat_message_translation_pending", columnList = "translationPending, id")
+})
 @NoArgsConstructor
 @Getter
-public class ChatMessage {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+public class ChatMessage extends TimeOrderedEntity {
 
     private String sender;
 
@@ -28,19 +28,54 @@ public class ChatMessage {
 
     private LocalDateTime createdAt;
 
+    // 번역 서비스 장애로 원문만 전달된 메세지. targetLanguage 로 나중에 번역을 채운다
+    private boolean translationPending;
+
+    private String targetLanguage;
+
+    // 브로드캐스트 시점(트랜잭션 밖)에 ChatRoom 을 조회하지 않도록 FK 값만 직접 쓰고, 연관관계는 읽기 전용으로 둔다
+    @Column(name = "chat_room_id")
+    private Long chatRoomId;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "chat_room_id")
+    @JoinColumn(name = "chat_room_id", insertable = false, updatable = false)
     private ChatRoom chatRoom;
 
     @PrePersist
     public void prePersist() {
-        this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+        }
     }
 
-    public ChatMessage(String sender, String message, String koreanMessage, ChatRoom chatRoom) {
+    public ChatMessage(String sender, String message, String koreanMessage, Long chatRoomId) {
+        // 브로드캐스트 시점에 id 가 필요하므로 저장 전에 발급 (시간 순 정렬 유지)
+        super(TimeOrderedIds.next());
         this.sender = sender;
         this.message = message;
         this.koreanMessage = koreanMessage;
-        this.chatRoom = chatRoom;
+        this.chatRoomId = chatRoomId;
+        // 저장이 늦게 일어나도 보낸 시각이 기록되도록 생성 시점에 설정
+        this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+    }
+
+    public void markTranslationPending(String targetLanguage) {
+        this.translationPending = true;
+        this.targetLanguage = targetLanguage;
+    }
+
+    // 번역이 빠진 쪽의 원문 (한국어로 번역할 메세지면 message, 아니면 koreanMessage)
+    public String getSourceText() {
+        return "korean".equals(targetLanguage) ? message : koreanMessage;
+    }
+
+    public void completeTranslation(String translatedText) {
+        if ("korean".equals(targetLanguage)) {
+            this.koreanMessage = translatedText;
+        } else {
+            this.message = translatedText;
+        }
+        this.translationPending = false;
+        this.targetLanguage = null;
     }
 }
@@ -0,0 +1,61 @@
+package cosacosa.medimate.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Entity
+@Table(
+        name = "medicine_explanation",
+        indexes = {
+                @Index(name = "uk_medicine_explanation", columnList = "medicineName, language", unique = true)
+        }
+)
+@NoArgsConstructor
+@Getter
+public class MedicineExplanation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 200)
+    private String medicineName;        // 공백 정규화된 약품명
+
+    @Column(nullable = false, length = 50)
+    private String language;            // 사용자 설정 언어 (소문자)
+
+    @Column(columnDefinition = "TEXT")
+    private String content;             // 사용자 언어 설명 (단순 문자열)
+
+    @Column(columnDefinition = "TEXT")
+    private String koreanContent;       // 한국어 설명 (단순 문자열)
+
+    @Column(columnDefinition = "TEXT")
+    private String contentMd;
+
+    @Column(columnDefinition = "TEXT")
+    private String koreanContentMd;
+
+    private String summary;             // 제목 조합용 한 줄 용도 요약 (사용자 언어)
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+    }
+
+    public MedicineExplanation(String medicineName, String language, String content, String koreanContent, String contentMd, String koreanContentMd, String summary) {
+        this.medicineName = medicineName;
+        this.language = language;
+        this.content = content;
+        this.koreanContent = koreanContent;
+        this.contentMd = contentMd;
+        this.koreanContentMd = koreanContentMd;
+        this.summary = summary;
+    }
+}
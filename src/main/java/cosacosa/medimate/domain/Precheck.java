@@ -1,10 +1,12 @@
 package cosacosa.medimate.domain;
 
+import cosacosa.medimate.service.PrecheckCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDate;
 
+// 일괄 등록 시 배치 insert 가 가능하도록 IDENTITY 대신 앱에서 시간 순 id 발급 (TimeOrderedEntity)
 @Entity
 @Table(
         name = "precheck",
@@ -12,15 +14,12 @@ import java.time.LocalDate;
                 @Index(name = "idx_precheck_user", columnList = "userId")
         }
 )
+@EntityListeners(PrecheckCacheEvictionListener.class)
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Precheck {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+public class Precheck extends TimeOrderedEntity {
 
     @Column
     private String title;                   // AI 생성 제목
@@ -8,6 +8,11 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 
 @Entity
+@Table(
+        indexes = {
+                @Index(name = "idx_prescription_image_hash", columnList = "imageHash, language")
+        }
+)
 @NoArgsConstructor
 @Getter
 public class Prescription {
@@ -33,6 +38,15 @@ public class Prescription {
 
     private String images = "";
 
+    @Column(length = 64)
+    private String imageHash; // 처방전 이미지의 SHA-256 (S3 키)
+
+    @Column(length = 50)
+    private String language;
+
+    @Column(columnDefinition = "TEXT")
+    private String medicineNames; // Upstage 추출 결과 (줄바꿈 구분)
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user; // 처방전을 입력한 사용자
@@ -49,4 +63,11 @@ public class Prescription {
         this.contentMd = contentMd;
         this.koreanContentMd = koreanContentMd;
     }
+
+    public void attachSource(String imageHash, String imageUrl, String language, String medicineNames) {
+        this.imageHash = imageHash;
+        this.images = imageUrl;
+        this.language = language;
+        this.medicineNames = medicineNames;
+    }
 }
@@ -0,0 +1,108 @@
+package cosacosa.medimate.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Entity
+@Table(
+        name = "prescription_job",
+        indexes = {
+                @Index(name = "idx_prescription_job_status", columnList = "status, leaseExpiresAt")
+        }
+)
+@NoArgsConstructor
+@Getter
+public class PrescriptionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PrescriptionJobStatus status;
+
+    private String language;
+
+    private String imagePath;        // 스풀링된 원본 이미지 경로 (재시작 후 재개용)
+
+    private String originalFilename;
+
+    private String contentType;
+
+    @Column(length = 64)
+    private String imageHash;        // 원본 이미지 SHA-256
+
+    private String imageUrl;         // 1단계 결과 (S3 URL)
+
+    @Column(columnDefinition = "TEXT")
+    private String medicineNames;    // 2단계 결과 (줄바꿈으로 구분된 약품명)
+
+    private Long prescriptionId;     // 3단계 결과
+
+    private String errorMessage;
+
+    // 작업을 실행 중인 인스턴스와 임대 만료 시각. 실행 중에는 heartbeat 로 연장하고, 만료되면 다른 인스턴스가 가져간다.
+    // 갱신은 PrescriptionJobRepository 의 조건부 update 로만 하므로 엔티티 저장이 덮어쓰지 않도록 updatable = false
+    @Column(length = 100, updatable = false)
+    private String owner;
+
+    @Column(updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        this.updatedAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+    }
+
+    public PrescriptionJob(String language, String imagePath, String originalFilename, String contentType, String imageHash) {
+        this.status = PrescriptionJobStatus.QUEUED;
+        this.language = language;
+        this.imagePath = imagePath;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.imageHash = imageHash;
+    }
+
+    // 처음 저장할 때 제출받은 인스턴스가 임대한 상태로 만든다
+    public void lease(String owner, LocalDateTime leaseExpiresAt) {
+        this.owner = owner;
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public void moveTo(PrescriptionJobStatus status) {
+        this.status = status;
+    }
+
+    public void uploaded(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public void extracted(String medicineNames) {
+        this.medicineNames = medicineNames;
+    }
+
+    public void complete(Long prescriptionId) {
+        this.prescriptionId = prescriptionId;
+        this.status = PrescriptionJobStatus.COMPLETED;
+    }
+
+    public void fail(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.status = PrescriptionJobStatus.FAILED;
+    }
+}
@@ -0,0 +1,14 @@
+package cosacosa.medimate.domain;
+
+public enum PrescriptionJobStatus {
+    QUEUED,      // 접수됨, 실행 대기
+    UPLOADING,   // S3 업로드 중
+    EXTRACTING,  // Upstage 약품명 추출 중
+    GENERATING,  // OpenAI 설명글 생성 중
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
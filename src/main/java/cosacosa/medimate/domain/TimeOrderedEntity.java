@@ -0,0 +1,54 @@
+package cosacosa.medimate.domain;
+
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * IDENTITY 대신 TimeOrderedIds 로 앱에서 id 를 발급하는 엔티티의 공통 부모.
+ * insert 전에 id 가 정해지므로 Hibernate JDBC 배치 insert 가 동작한다.
+ * id 는 persist 직전에 채우며, 저장 전에 id 가 필요하면(브로드캐스트 등) TimeOrderedEntity(Long) 생성자로 미리 발급한다.
+ */
+@MappedSuperclass
+@Getter
+public abstract class TimeOrderedEntity implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    // id 를 직접 넣으므로 save() 가 merge(SELECT)가 아닌 persist 로 동작하도록 새 엔티티 여부를 따로 관리
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean persisted;
+
+    protected TimeOrderedEntity() {
+    }
+
+    protected TimeOrderedEntity(Long id) {
+        this.id = id;
+    }
+
+    @PrePersist
+    void assignIdBeforePersist() {
+        if (this.id == null) {
+            this.id = TimeOrderedIds.next();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+}
@@ -0,0 +1,58 @@
+package cosacosa.medimate.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Entity
+@Table(
+        name = "translation_cache",
+        indexes = {
+                @Index(name = "uk_translation_cache_key", columnList = "keyHash", unique = true)
+        }
+)
+@NoArgsConstructor
+@Getter
+public class TranslationCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String keyHash;         // SHA-256(model, source, target, 정규화된 원문)
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String sourceText;
+
+    @Column(length = 50)
+    private String sourceLanguage;
+
+    @Column(nullable = false, length = 50)
+    private String targetLanguage;
+
+    @Column(nullable = false, length = 50)
+    private String model;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String translatedText;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+    }
+
+    public TranslationCacheEntry(String keyHash, String sourceText, String sourceLanguage, String targetLanguage, String model, String translatedText) {
+        this.keyHash = keyHash;
+        this.sourceText = sourceText;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.model = model;
+        this.translatedText = translatedText;
+    }
+}
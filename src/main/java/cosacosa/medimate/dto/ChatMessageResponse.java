@@ -1,11 +1,14 @@
 package cosacosa.medimate.dto;
 
-import cosacosa.medimate.domain.ChatRoom;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
 
 @Getter
+@AllArgsConstructor
+@Builder
 public class ChatMessageResponse {
     private Long id;
     private String sender;
@@ -13,13 +16,8 @@ public class ChatMessageResponse {
     private String koreanMessage;
     private LocalDateTime createdAt;
     private Long roomId;
-
-    public ChatMessageResponse(Long id, String sender, String message, String koreanMessage, LocalDateTime createdAt, Long roomId) {
-        this.id = id;
-        this.sender = sender;
-        this.message = message;
-        this.koreanMessage = koreanMessage;
-        this.createdAt = createdAt;
-        this.roomId = roomId;
-    }
+    @Builder.Default
+    private ChatMessageState state = ChatMessageState.FINAL;
+    private String streamId;
+    private boolean translationPending; // true 면 번역 대신 원문이 들어 있고, 번역되면 같은 id 로 다시 전송된다
 }
@@ -0,0 +1,6 @@
+package cosacosa.medimate.dto;
+
+// PARTIAL: 번역 중인 메세지 (id 없음, 같은 streamId 의 다음 프레임으로 대체), FINAL: 저장이 끝난 메세지
+public enum ChatMessageState {
+    PARTIAL, FINAL
+}
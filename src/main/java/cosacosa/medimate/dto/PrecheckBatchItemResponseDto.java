@@ -0,0 +1,14 @@
+package cosacosa.medimate.dto;
+
+import lombok.*;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrecheckBatchItemResponseDto {
+    private int index;                  // 요청 목록에서의 순서
+    private String status;              // CREATED | FAILED
+    private PrecheckResponseDto precheck;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package cosacosa.medimate.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrecheckBatchResponseDto {
+    private int created;
+    private int failed;
+    private List<PrecheckBatchItemResponseDto> results;
+}
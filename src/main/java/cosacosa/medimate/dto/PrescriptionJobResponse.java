@@ -0,0 +1,25 @@
+package cosacosa.medimate.dto;
+
+import cosacosa.medimate.domain.PrescriptionJobStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class PrescriptionJobResponse {
+    private Long id;
+    private PrescriptionJobStatus status;
+    private Long prescriptionId;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public PrescriptionJobResponse(Long id, PrescriptionJobStatus status, Long prescriptionId, String errorMessage, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.status = status;
+        this.prescriptionId = prescriptionId;
+        this.errorMessage = errorMessage;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,10 +1,22 @@
 package cosacosa.medimate.repository;
 
 import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.dto.ChatMessageResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findByChatRoomId(Long roomId);
+
+    // (chat_room_id, id) 인덱스를 역순으로 읽는 keyset 조회. 엔티티/ChatRoom 프록시 없이 DTO로 바로 받는다 (저장된 메세지라 FINAL, streamId 없음)
+    @Query("select new cosacosa.medimate.dto.ChatMessageResponse(m.id, m.sender, m.message, m.koreanMessage, m.createdAt, m.chatRoomId, " +
+            "cosacosa.medimate.dto.ChatMessageState.FINAL, cast(null as String), m.translationPending) " +
+            "from ChatMessage m where m.chatRoomId = :roomId and m.id < :before order by m.id desc")
+    List<ChatMessageResponse> findPageByRoomBefore(@Param("roomId") Long roomId, @Param("before") Long before, Limit limit);
+
+    // 번역이 밀린 메세지를 오래된 순으로 (번역 보충 작업용)
+    List<ChatMessage> findByTranslationPendingTrueOrderByIdAsc(Limit limit);
 }
@@ -0,0 +1,11 @@
+package cosacosa.medimate.repository;
+
+import cosacosa.medimate.domain.MedicineExplanation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MedicineExplanationRepository extends JpaRepository<MedicineExplanation, Long> {
+    List<MedicineExplanation> findByLanguageAndMedicineNameIn(String language, Collection<String> medicineNames);
+}
@@ -1,11 +1,18 @@
 package cosacosa.medimate.repository;
 
 import cosacosa.medimate.domain.Precheck;
+import cosacosa.medimate.dto.PrecheckListItemResponseDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface PrecheckRepository extends JpaRepository<Precheck, Long> {
-    List<Precheck> findAllByOrderByIdDesc();
+    // 목록 화면용 keyset 조회: description 등 TEXT 컬럼은 읽지 않고 id, title, createdAt 만 PK 역순으로 가져온다
+    @Query("select new cosacosa.medimate.dto.PrecheckListItemResponseDto(p.id, p.title, p.createdAt) " +
+            "from Precheck p where p.id < :before order by p.id desc")
+    List<PrecheckListItemResponseDto> findListPageBefore(@Param("before") Long before, Limit limit);
 }
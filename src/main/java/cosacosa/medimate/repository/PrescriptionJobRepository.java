@@ -0,0 +1,58 @@
+package cosacosa.medimate.repository;
+
+import cosacosa.medimate.domain.PrescriptionJob;
+import cosacosa.medimate.domain.PrescriptionJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PrescriptionJobRepository extends JpaRepository<PrescriptionJob, Long> {
+
+    // 끝나지 않았고 임대가 없거나 만료된 작업 (owner 자신의 작업은 재시작 직후 바로 다시 가져갈 수 있도록 포함)
+    @Query("select j.id from PrescriptionJob j " +
+            "where j.status in :statuses and (j.owner = :owner or j.leaseExpiresAt is null or j.leaseExpiresAt < :now) " +
+            "order by j.id asc")
+    List<Long> findClaimableIds(@Param("statuses") Collection<PrescriptionJobStatus> statuses,
+                                @Param("owner") String owner,
+                                @Param("now") LocalDateTime now);
+
+    // 조건부 update 로 한 인스턴스만 임대에 성공한다 (성공하면 1)
+    @Transactional
+    @Modifying
+    @Query("update PrescriptionJob j set j.owner = :owner, j.leaseExpiresAt = :until " +
+            "where j.id = :id and j.status in :statuses " +
+            "and (j.owner = :owner or j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+    int claim(@Param("id") Long id,
+              @Param("owner") String owner,
+              @Param("until") LocalDateTime until,
+              @Param("now") LocalDateTime now,
+              @Param("statuses") Collection<PrescriptionJobStatus> statuses);
+
+    // 아직 owner 가 임대 중일 때만 연장 (0 이면 다른 인스턴스가 가져간 것)
+    @Transactional
+    @Modifying
+    @Query("update PrescriptionJob j set j.leaseExpiresAt = :until where j.id = :id and j.owner = :owner")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    // 아직 owner 가 임대 중일 때만 완료 처리 (0 이면 다른 인스턴스가 가져간 것)
+    @Transactional
+    @Modifying
+    @Query("update PrescriptionJob j set j.status = :status, j.prescriptionId = :prescriptionId, j.updatedAt = :now " +
+            "where j.id = :id and j.owner = :owner")
+    int completeLeased(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("prescriptionId") Long prescriptionId,
+                       @Param("now") LocalDateTime now,
+                       @Param("status") PrescriptionJobStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update PrescriptionJob j set j.owner = null, j.leaseExpiresAt = null where j.id = :id and j.owner = :owner")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -1,7 +1,22 @@
 package cosacosa.medimate.repository;
 
 import cosacosa.medimate.domain.Prescription;
+import cosacosa.medimate.dto.PrescriptionListItemResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+    Optional<Prescription> findFirstByImageHashAndLanguageOrderByIdDesc(String imageHash, String language);
+
+    Optional<Prescription> findFirstByImageHashAndMedicineNamesIsNotNullOrderByIdDesc(String imageHash);
+
+    // 목록 화면용 keyset 조회: TEXT 컬럼은 읽지 않고 id, title, createdAt 만 PK 역순으로 가져온다
+    @Query("select new cosacosa.medimate.dto.PrescriptionListItemResponse(p.id, p.title, p.createdAt) " +
+            "from Prescription p where p.id < :before order by p.id desc")
+    List<PrescriptionListItemResponse> findListPageBefore(@Param("before") Long before, Limit limit);
 }
@@ -0,0 +1,10 @@
+package cosacosa.medimate.repository;
+
+import cosacosa.medimate.domain.TranslationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface TranslationCacheRepository extends JpaRepository<TranslationCacheEntry, Long> {
+    Optional<TranslationCacheEntry> findByKeyHash(String keyHash);
+}
@@ -0,0 +1,68 @@
+package cosacosa.medimate.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * AI 호출 지점별 서킷 브레이커 + 타임 리미터 (설정: resilience4j.circuitbreaker / resilience4j.timelimiter).
+ * 응답이 제한 시간을 넘기면 TimeoutException 으로 끝내고, 실패가 이어져 회로가 열리면
+ * 제공자를 기다리지 않고 CallNotPermittedException 으로 바로 실패시킨다.
+ * protect 는 LlmGateway 가 HTTP 요청 한 번에만 적용하므로 호출 한도 대기열과 재시도 대기 시간은 제한 시간과 실패율에 들어가지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AiCircuitBreakers {
+
+    public static final String CHAT_TRANSLATION = "chat-translation";
+    public static final String PRECHECK = "precheck-ai";
+    public static final String PRESCRIPTION_EXTRACT = "prescription-extract";
+    public static final String PRESCRIPTION_DETAILS = "prescription-details";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    public <T> Mono<T> protect(String name, Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(name)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(name)));
+    }
+
+    // 스트리밍 호출은 첫 조각과 조각 사이의 대기 시간에 제한 시간을 적용
+    public <T> Flux<T> protect(String name, Flux<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(name)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(name)));
+    }
+
+    // 회로가 열려 있으면 호출 한도 대기열에 들어가기 전에 바로 실패
+    public <T> Mono<T> failFastIfOpen(String name, Mono<T> call) {
+        return Mono.defer(() -> {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            return isOpen(circuitBreaker) ? Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)) : call;
+        });
+    }
+
+    public <T> Flux<T> failFastIfOpen(String name, Flux<T> call) {
+        return Flux.defer(() -> {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            return isOpen(circuitBreaker) ? Flux.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)) : call;
+        });
+    }
+
+    public boolean isOpen(String name) {
+        return isOpen(circuitBreakerRegistry.circuitBreaker(name));
+    }
+
+    private static boolean isOpen(CircuitBreaker circuitBreaker) {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+}
@@ -0,0 +1,19 @@
+package cosacosa.medimate.service;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+// 서킷 브레이커가 실패로 세는 예외: 제공자 쪽 문제(429, 5xx, 연결 실패, 시간 초과)만.
+// 그 외 4xx 는 요청 자체의 문제이므로 회로를 열지 않는다
+public class AiFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+}
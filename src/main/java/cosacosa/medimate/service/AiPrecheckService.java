@@ -1,24 +1,25 @@
 package cosacosa.medimate.service;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cosacosa.medimate.config.PrecheckAiProperties;
 import cosacosa.medimate.dto.PrecheckRequestDto;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 public class AiPrecheckService {
-    private final WebClient openAiWebClient;
+    private final LlmGateway llmGateway;
     private final PrecheckAiProperties props;
     private final ObjectMapper om = new ObjectMapper();
 
@@ -52,11 +53,30 @@ public class AiPrecheckService {
             )
     );
 
-    public AiResultFull generateTitleAndContent(PrecheckRequestDto req) {
+    public Mono<AiResultFull> generateTitleAndContent(PrecheckRequestDto req) {
         String systemPrompt = buildSystemPrompt();
         String userPrompt = buildUserPrompt(req);
-        JsonNode json = callOpenAi(systemPrompt, userPrompt);
+        return callOpenAi(systemPrompt, userPrompt).map(json -> toResult(req, json));
+    }
+
+    // 생성 중인 JSON 응답 조각을 그대로 흘려보낸다. 완성된 응답은 parseResult 로 변환
+    public Flux<String> streamTitleAndContent(PrecheckRequestDto req) {
+        return llmGateway.chatStream(AiCircuitBreakers.PRECHECK, requestBody(buildSystemPrompt(), buildUserPrompt(req)))
+                .onErrorMap(AiPrecheckService::unavailable)
+                .onErrorMap(WebClientResponseException.class, e -> new ResponseStatusException(
+                        HttpStatus.BAD_GATEWAY,
+                        "OpenAI API 호출 실패: " + e.getStatusCode().value()
+                ));
+    }
 
+    public AiResultFull parseResult(PrecheckRequestDto req, String contentText) {
+        if (contentText == null || contentText.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI 응답 content 비어 있음");
+        }
+        return toResult(req, readJson(contentText));
+    }
+
+    private AiResultFull toResult(PrecheckRequestDto req, JsonNode json) {
         String language = getText(json, "detectedLanguage");
         String nationality = getText(json, "nationality");
         String translatedNationality = getText(json, "translatedNationality");
@@ -180,8 +200,32 @@ public class AiPrecheckService {
         );
     }
 
-    private JsonNode callOpenAi(String systemPrompt, String userPrompt) {
-        Map<String, Object> requestBody = Map.of(
+    private Mono<JsonNode> callOpenAi(String systemPrompt, String userPrompt) {
+        return llmGateway.chat(AiCircuitBreakers.PRECHECK, requestBody(systemPrompt, userPrompt))
+                .onErrorMap(AiPrecheckService::unavailable)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI 응답 content 비어 있음")))
+                .map(this::readJson)
+                .onErrorMap(WebClientResponseException.class, e -> new ResponseStatusException(
+                        HttpStatus.BAD_GATEWAY,
+                        "OpenAI API 호출 실패: " + e.getStatusCode().value()
+                ))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "OpenAI 응답 처리 실패"));
+    }
+
+    // 회로가 열려 있으면 기다리지 않고 503, 응답 시간 초과는 504
+    private static Throwable unavailable(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI 서비스가 일시적으로 응답하지 않습니다. 잠시 후 다시 시도해주세요.");
+        }
+        if (e instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "OpenAI 응답 시간 초과");
+        }
+        return e;
+    }
+
+    private Map<String, Object> requestBody(String systemPrompt, String userPrompt) {
+        return Map.of(
                 "model", props.getModel(),
                 "messages", List.of(
                         Map.of("role", "system", "content", systemPrompt),
@@ -192,34 +236,11 @@ public class AiPrecheckService {
                         "type", "json_object"
                 )
         );
+    }
 
+    private JsonNode readJson(String contentText) {
         try {
-            String raw = openAiWebClient.post()
-                    .uri("/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            ChatResponse resp = om.readValue(raw, ChatResponse.class);
-            if (resp == null || resp.choices == null || resp.choices.isEmpty() || resp.choices.get(0).message == null) {
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI 응답 비어 있음");
-            }
-            String contentText = resp.choices.get(0).message.content;
-            if (isBlank(contentText)) {
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI 응답 content 비어 있음");
-            }
             return om.readTree(contentText);
-
-        } catch (WebClientResponseException e) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_GATEWAY,
-                    "OpenAI API 호출 실패: " + e.getStatusCode().value()
-            );
-        } catch (ResponseStatusException e) {
-            throw e;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "OpenAI 응답 처리 실패");
         }
@@ -231,16 +252,8 @@ public class AiPrecheckService {
                 : "";
     }
 
-    private static boolean isBlank(String s) { return s == null || s.isBlank(); }
     private static String safe(String s) { return s == null ? "" : s; }
     private static String escapeQuotes(String s) { return s.replace("\"", "\\\""); }
 
     public record AiResultFull(String title, String visitPurpose, String content, String koreanContent) {}
-
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class ChatResponse { public List<Choice> choices; }
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class Choice { public Message message; }
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class Message { public String content; }
 }
\ No newline at end of file
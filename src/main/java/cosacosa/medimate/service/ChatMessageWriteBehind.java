@@ -0,0 +1,155 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatWriteBehindProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 채팅 메세지 write-behind 저장소.
+ * 메세지는 먼저 브로드캐스트하고, flush-interval 마다 모아서 한 트랜잭션의 JDBC 배치 insert 로 저장한다.
+ * 저장에 실패한 메세지는 큐로 되돌려 다음 주기에 다시 시도하며, 종료 시에는 남은 메세지를 모두 저장한다.
+ * 제약 조건 위반이 max-attempts 번 반복된 메세지는 버리고 cosacosa.medimate.chat.dead-letter 로거에 기록한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageWriteBehind {
+
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("cosacosa.medimate.chat.dead-letter");
+    private static final Long NO_ROOM = -1L; // 방이 없는 메세지의 색인 키 (ConcurrentHashMap 은 null 키를 허용하지 않는다)
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatWriteBehindProperties props;
+
+    private final Queue<ChatMessage> queue = new ConcurrentLinkedQueue<>();
+    // 큐에 있거나 저장 중인 메세지. 아직 DB에 없는 메세지도 조회 결과에 포함시키기 위해 방별로 id 순으로 보관
+    private final Map<Long, ConcurrentSkipListMap<Long, ChatMessage>> unflushedByRoom = new ConcurrentHashMap<>();
+    private final AtomicInteger unflushedCount = new AtomicInteger();
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public void enqueue(ChatMessage message) {
+        if (!props.isEnabled() || unflushedCount.get() >= props.getMaxPending()) {
+            transactionTemplate.executeWithoutResult(status -> chatMessageRepository.save(message));
+            return;
+        }
+        unflushedByRoom.compute(roomOf(message), (roomId, messages) -> {
+            ConcurrentSkipListMap<Long, ChatMessage> room = messages == null ? new ConcurrentSkipListMap<>() : messages;
+            if (room.put(message.getId(), message) == null) {
+                unflushedCount.incrementAndGet();
+            }
+            return room;
+        });
+        queue.add(message);
+    }
+
+    // 아직 저장되지 않은 해당 방의 메세지 (id 순)
+    public List<ChatMessage> pending(Long roomId) {
+        ConcurrentSkipListMap<Long, ChatMessage> messages = unflushedByRoom.get(roomId);
+        return messages == null ? List.of() : List.copyOf(messages.values());
+    }
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval:200ms}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            while (flushBatch()) {
+                // 큐가 비거나 실패할 때까지 max-batch-size 단위로 계속 저장
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (unflushedCount.get() > 0) {
+            log.error("{} chat messages could not be persisted before shutdown", unflushedCount.get());
+        }
+    }
+
+    private boolean flushBatch() {
+        List<ChatMessage> batch = new ArrayList<>(props.getMaxBatchSize());
+        ChatMessage message;
+        while (batch.size() < props.getMaxBatchSize() && (message = queue.poll()) != null) {
+            batch.add(message);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> chatMessageRepository.saveAll(batch));
+            batch.forEach(this::markFlushed);
+            log.debug("Persisted {} chat messages", batch.size());
+            return batch.size() == props.getMaxBatchSize();
+        } catch (DataIntegrityViolationException e) {
+            // 배치 안의 메세지 하나 때문에 전체가 막히지 않도록 하나씩 다시 저장
+            log.warn("Batch insert of {} chat messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::saveSingly);
+            return false;
+        } catch (RuntimeException e) {
+            // DB 연결 실패 등 일시적인 오류는 횟수 제한 없이 다음 주기에 재시도
+            log.warn("Batch insert of {} chat messages failed, will retry: {}", batch.size(), e.getMessage());
+            queue.addAll(batch);
+            return false;
+        }
+    }
+
+    private void saveSingly(ChatMessage message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> chatMessageRepository.save(message));
+            markFlushed(message);
+        } catch (DataIntegrityViolationException e) {
+            int attempts = failedAttempts.merge(message.getId(), 1, Integer::sum);
+            if (attempts >= props.getMaxAttempts()) {
+                // 이미 브로드캐스트된 메세지이므로 찾아서 복구할 수 있도록 식별 정보를 전용 로거에 남긴다 (본문은 민감 정보라 제외)
+                DEAD_LETTER.error("Dropping chat message id={} room={} sender={} createdAt={} translationPending={} after {} attempts: {}",
+                        message.getId(), message.getChatRoomId(), message.getSender(), message.getCreatedAt(),
+                        message.isTranslationPending(), attempts, e.getMessage());
+                markFlushed(message);
+            } else {
+                queue.add(message);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Insert of chat message {} failed, will retry: {}", message.getId(), e.getMessage());
+            queue.add(message);
+        }
+    }
+
+    private void markFlushed(ChatMessage message) {
+        // 비게 된 방은 맵에서 뺀다
+        unflushedByRoom.computeIfPresent(roomOf(message), (roomId, messages) -> {
+            if (messages.remove(message.getId()) != null) {
+                unflushedCount.decrementAndGet();
+            }
+            return messages.isEmpty() ? null : messages;
+        });
+        failedAttempts.remove(message.getId());
+    }
+
+    private static Long roomOf(ChatMessage message) {
+        return message.getChatRoomId() == null ? NO_ROOM : message.getChatRoomId();
+    }
+}
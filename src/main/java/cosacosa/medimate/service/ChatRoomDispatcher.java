@@ -0,0 +1,148 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatDispatcherProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 채팅방 단위 순서 보장 + 방 간 병렬 처리.
+ * 작업(번역)은 도착하는 즉시 병렬로 시작하고, 결과는 방마다 있는 메일박스에 도착 순서대로 쌓인다.
+ * 메일박스는 roomId 로 나눈 stripe 의 단일 스레드만 읽고 쓰므로 (single writer) 잠금이 없고,
+ * 맨 앞 작업이 끝나는 대로 이어서 끝난 결과들을 순서대로 처리한다.
+ * 느린 번역은 같은 방의 뒤 메세지만 기다리게 하고, 같은 stripe 의 다른 방은 막지 않는다.
+ * 결과 처리(저장 대기열에 넣기)가 끝난 뒤에 write-behind 가 마지막 flush 를 하도록 ChatMessageWriteBehind 보다 먼저 종료된다.
+ */
+@Component
+@DependsOn("chatMessageWriteBehind")
+@Slf4j
+public class ChatRoomDispatcher {
+
+    private final Stripe[] stripes;
+    private final Duration shutdownTimeout;
+    // 아직 끝나지 않은 작업 (종료 시 기다릴 대상)
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ChatRoomDispatcher(ChatDispatcherProperties props) {
+        this.shutdownTimeout = props.getShutdownTimeout();
+        int count = props.getStripes() > 0 ? props.getStripes() : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("chat-room-stripe-");
+        threadFactory.setDaemon(true);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Executors.newSingleThreadExecutor(threadFactory));
+        }
+    }
+
+    public <T> void dispatch(Long roomId, Mono<T> work, Consumer<T> onResult) {
+        Stripe stripe = stripes[Math.floorMod(roomId.hashCode(), stripes.length)];
+        Task<T> task = new Task<>(work.toFuture(), onResult);
+        inFlight.add(task.result);
+        stripe.executor.execute(() -> stripe.enqueue(roomId, task));
+        // 완료 알림도 같은 stripe 스레드에서 처리되므로 항상 enqueue 뒤에 실행된다
+        task.result.whenComplete((value, error) -> {
+            inFlight.remove(task.result);
+            try {
+                stripe.executor.execute(() -> stripe.drain(roomId));
+            } catch (RejectedExecutionException e) {
+                log.warn("Chat task for room {} completed after shutdown", roomId);
+            }
+        });
+    }
+
+    // 진행 중인 작업이 끝나기를 기다리고, 남은 결과를 방별 순서대로 처리한 뒤 stripe 스레드를 종료한다
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            CompletableFuture.allOf(inFlight.stream()
+                            .map(result -> result.handle((value, error) -> null))
+                            .toArray(CompletableFuture[]::new))
+                    .get(shutdownTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("{} chat tasks still running after {}", inFlight.size(), shutdownTimeout);
+        } catch (ExecutionException e) {
+            // handle 로 실패를 삼키므로 발생하지 않는다
+        }
+        for (Stripe stripe : stripes) {
+            stripe.executor.execute(stripe::drainAll);
+            stripe.executor.shutdown();
+        }
+        for (Stripe stripe : stripes) {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            if (!stripe.executor.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                log.error("Chat room stripe did not terminate within {}", shutdownTimeout);
+                stripe.executor.shutdownNow();
+            }
+        }
+    }
+
+    private record Task<T>(CompletableFuture<T> result, Consumer<T> onResult) {
+        void complete(Long roomId) {
+            try {
+                T value = result.join();
+                if (value != null) {
+                    onResult.accept(value);
+                }
+            } catch (RuntimeException e) {
+                log.error("Chat task for room {} failed: {}", roomId, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final ExecutorService executor;
+        // stripe 스레드에서만 접근
+        private final Map<Long, Queue<Task<?>>> mailboxes = new HashMap<>();
+
+        private Stripe(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        private void enqueue(Long roomId, Task<?> task) {
+            mailboxes.computeIfAbsent(roomId, id -> new ArrayDeque<>()).add(task);
+        }
+
+        private void drain(Long roomId) {
+            Queue<Task<?>> mailbox = mailboxes.get(roomId);
+            if (mailbox == null) {
+                return;
+            }
+            while (!mailbox.isEmpty() && mailbox.peek().result().isDone()) {
+                mailbox.poll().complete(roomId);
+            }
+            if (mailbox.isEmpty()) {
+                mailboxes.remove(roomId);
+            }
+        }
+
+        // 종료 직전 마지막 처리. 앞 작업이 끝나지 않아 처리하지 못한 결과는 버려진다
+        private void drainAll() {
+            for (Long roomId : List.copyOf(mailboxes.keySet())) {
+                drain(roomId);
+            }
+            mailboxes.forEach((roomId, mailbox) ->
+                    log.error("Discarding {} unfinished chat tasks for room {} on shutdown", mailbox.size(), roomId));
+        }
+    }
+}
@@ -6,38 +6,102 @@ import cosacosa.medimate.domain.Precheck;
 import cosacosa.medimate.domain.Prescription;
 import cosacosa.medimate.dto.Chat;
 import cosacosa.medimate.dto.ChatMessageResponse;
+import cosacosa.medimate.dto.ChatMessageState;
 import cosacosa.medimate.dto.ChatRoomRequest;
 import cosacosa.medimate.dto.ChatRoomResponse;
 import cosacosa.medimate.repository.ChatMessageRepository;
 import cosacosa.medimate.repository.ChatRoomRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ChatService {
 
     private final SimpMessageSendingOperations messagingTemplate;
     private final ChatMessageRepository chatMessageRepository;
     private final ChatRoomRepository chatRoomRepository;
-    private final WebClient openAiWebClient;
+    private final LlmGateway llmGateway;
+    private final TranslationCache translationCache;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final ChatRoomDispatcher chatRoomDispatcher;
     private final PrecheckService precheckService;
     private final PrescriptionService prescriptionService;
 
-    private record OpenAiRequest(String model, List<Message> messages, double temperature) {}
-    private record Message(String role, String content) {}
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
-    private record OpenAiResponse(List<Choice> choices) {}
-    private record Choice(Message message) {}
+    private static final String TRANSLATION_MODEL = "gpt-4o"; // 혹은 "gpt-3.5-turbo"
 
     // roomId를 구독 중인 클라이언트들에게 메세지를 전송
-    @Transactional
+    // 번역은 스트리밍으로 받아 PARTIAL 프레임으로 먼저 보내고, 저장이 끝나면 같은 streamId 의 FINAL 프레임을 보낸다.
+    // 번역 서비스가 느리거나 회로가 열려 있으면 원문을 바로 보내고 translationPending 으로 표시한다 (ChatTranslationBackfill 이 나중에 채움)
     public void processMessage(Chat chatMessage) {
+        Map<String, Object> request = translationRequest(chatMessage.getMessage(), chatMessage.getLanguage());
+        TranslationCache.Key cacheKey = cacheKey(chatMessage.getMessage(), chatMessage.getLanguage());
+
+        Long roomId = chatMessage.getRoomId();
+        String streamId = UUID.randomUUID().toString();
+        // 번역은 바로 시작하고, 저장/브로드캐스트는 같은 방 안에서 도착 순서대로 처리
+        Mono<Translation> translation = translationCache.get(cacheKey)
+                .switchIfEmpty(Mono.defer(() -> streamTranslation(chatMessage, streamId, request)
+                        .doOnNext(translatedText -> translationCache.put(cacheKey, translatedText))))
+                .map(Translation::done)
+                .onErrorResume(e -> {
+                    log.warn("Translation for room {} deferred: {}", roomId, e.toString());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Translation.PENDING);
+        chatRoomDispatcher.dispatch(roomId, translation,
+                result -> saveAndBroadcast(chatMessage, streamId, result));
+    }
+
+    // 번역이 밀린 메세지를 채우는 용도. 회로 상태를 공유하고 실시간 채팅보다 낮은 우선순위로 요청한다
+    public Mono<String> translate(String text, String targetLanguage) {
+        TranslationCache.Key cacheKey = cacheKey(text, targetLanguage);
+        return translationCache.get(cacheKey)
+                .switchIfEmpty(Mono.defer(() -> llmGateway.chat(AiCircuitBreakers.CHAT_TRANSLATION,
+                                translationRequest(text, targetLanguage), LlmPriority.BACKGROUND)
+                        .map(String::strip)
+                        .filter(translatedText -> !translatedText.isEmpty())
+                        .doOnNext(translatedText -> translationCache.put(cacheKey, translatedText))));
+    }
+
+    // 번역을 저장하고 같은 id 의 FINAL 프레임으로 다시 전송해 클라이언트가 원문을 번역문으로 바꾸게 한다
+    @Transactional
+    public void completeTranslation(Long messageId, String translatedText) {
+        ChatMessage message = chatMessageRepository.findById(messageId)
+                .orElseThrow(() -> new RuntimeException("해당 메세지를 찾을 수 없습니다."));
+        if (!message.isTranslationPending()) {
+            return;
+        }
+        message.completeTranslation(translatedText);
+        Long roomId = message.getChatRoomId();
+        messagingTemplate.convertAndSend("/sub/chat/rooms/" + roomId, ChatMessageResponse.builder()
+                .id(message.getId())
+                .sender(message.getSender())
+                .message(message.getMessage())
+                .koreanMessage(message.getKoreanMessage())
+                .createdAt(message.getCreatedAt())
+                .roomId(roomId)
+                .build());
+    }
+
+    private Map<String, Object> translationRequest(String text, String targetLanguage) {
         String promptText = """
                 You are a highly skilled medical interpreter facilitating communication between a doctor and a patient.
                 Your task is to accurately translate the user's message into {target_language}.
@@ -51,30 +115,52 @@ public class ChatService {
                 Translated Text in {target_language}:""";
 
         String finalPrompt = promptText
-                .replace("{target_language}", chatMessage.getLanguage())
-                .replace("{text_to_translate}", chatMessage.getMessage());
+                .replace("{target_language}", targetLanguage)
+                .replace("{text_to_translate}", text);
 
 
-        OpenAiRequest request = new OpenAiRequest(
-                "gpt-4o", // 혹은 "gpt-3.5-turbo"
-                List.of(new Message("user", finalPrompt)),
-                0.7 // 창의성 조절 (0.0 ~ 2.0), 번역은 낮은 값이 좋음
+        return Map.of(
+                "model", TRANSLATION_MODEL,
+                "messages", List.of(Map.of("role", "user", "content", finalPrompt)),
+                "temperature", 0.7 // 창의성 조절 (0.0 ~ 2.0), 번역은 낮은 값이 좋음
         );
+    }
 
+    // 한국어로 번역하는 경우 원문은 환자 언어(자동 감지), 그 외에는 의사가 쓴 한국어 원문
+    private static TranslationCache.Key cacheKey(String text, String targetLanguage) {
+        String sourceLanguage = targetLanguage.equals("korean") ? "auto" : "korean";
+        return TranslationCache.Key.of(text, sourceLanguage, targetLanguage, TRANSLATION_MODEL);
+    }
 
-        OpenAiResponse response = openAiWebClient.post()
-                .uri("/chat/completions")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(OpenAiResponse.class)
-                .block(); // 비동기 응답을 동기적으로 대기
+    // 번역 조각이 도착할 때마다 지금까지의 번역문 전체를 PARTIAL 프레임으로 전송
+    private Mono<String> streamTranslation(Chat chatMessage, String streamId, Map<String, Object> request) {
+        StringBuilder translated = new StringBuilder();
+        return llmGateway.chatStream(AiCircuitBreakers.CHAT_TRANSLATION, request, LlmPriority.INTERACTIVE)
+                .doOnNext(delta -> {
+                    translated.append(delta);
+                    messagingTemplate.convertAndSend("/sub/chat/rooms/" + chatMessage.getRoomId(),
+                            partialResponse(chatMessage, streamId, translated.toString()));
+                })
+                .then(Mono.fromCallable(() -> translated.toString().strip()))
+                .filter(translatedText -> !translatedText.isEmpty());
+    }
 
-        String translatedText = "번역에 실패했습니다."; // 기본값
-        if (response != null && !response.choices().isEmpty()) {
-            translatedText = response.choices().get(0).message().content();
-        }
+    private ChatMessageResponse partialResponse(Chat chatMessage, String streamId, String translatedText) {
+        boolean toKorean = chatMessage.getLanguage().equals("korean");
+        return ChatMessageResponse.builder()
+                .sender(chatMessage.getSender())
+                .message(toKorean ? chatMessage.getMessage() : translatedText)
+                .koreanMessage(toKorean ? translatedText : chatMessage.getMessage())
+                .roomId(chatMessage.getRoomId())
+                .state(ChatMessageState.PARTIAL)
+                .streamId(streamId)
+                .build();
+    }
 
-        ChatRoom chatRoom = chatRoomRepository.getReferenceById(chatMessage.getRoomId());
+    // 저장은 write-behind 로 미루고 id 가 정해진 메세지를 바로 브로드캐스트
+    private void saveAndBroadcast(Chat chatMessage, String streamId, Translation translation) {
+        // 번역이 없으면 양쪽 모두 원문으로 보낸다
+        String translatedText = translation.pending() ? chatMessage.getMessage() : translation.text();
         String koreanMessage;
         String message;
         if (chatMessage.getLanguage().equals("korean")) {
@@ -85,35 +171,63 @@ public class ChatService {
             message = translatedText;
         }
 
-        ChatMessage newMessage = chatMessageRepository.save(new ChatMessage(
+        ChatMessage newMessage = new ChatMessage(
                 chatMessage.getSender(),
                 message,
                 koreanMessage,
-                chatRoom
-        ));
-
-        ChatMessageResponse chatResponse = new ChatMessageResponse(
-                newMessage.getId(),
-                newMessage.getSender(),
-                newMessage.getMessage(),
-                newMessage.getKoreanMessage(),
-                newMessage.getCreatedAt(),
-                newMessage.getChatRoom().getId()
+                chatMessage.getRoomId()
         );
+        if (translation.pending()) {
+            newMessage.markTranslationPending(chatMessage.getLanguage());
+        }
+        chatMessageWriteBehind.enqueue(newMessage);
 
+        ChatMessageResponse chatResponse = ChatMessageResponse.builder()
+                .id(newMessage.getId())
+                .sender(newMessage.getSender())
+                .message(newMessage.getMessage())
+                .koreanMessage(newMessage.getKoreanMessage())
+                .createdAt(newMessage.getCreatedAt())
+                .roomId(chatMessage.getRoomId())
+                .streamId(streamId)
+                .translationPending(newMessage.isTranslationPending())
+                .build();
         messagingTemplate.convertAndSend("/sub/chat/rooms/" + chatMessage.getRoomId(), chatResponse);
     }
 
-    public List<ChatMessageResponse> readMessageList(Long roomId) {
-        List<ChatMessage> messageList = chatMessageRepository.findByChatRoomId(roomId);
-        return messageList.stream().map(chatMessage -> new ChatMessageResponse(
-                chatMessage.getId(),
-                chatMessage.getSender(),
-                chatMessage.getMessage(),
-                chatMessage.getKoreanMessage(),
-                chatMessage.getCreatedAt(),
-                chatMessage.getChatRoom().getId()
-        )).toList();
+    private record Translation(String text, boolean pending) {
+        static final Translation PENDING = new Translation(null, true);
+
+        static Translation done(String text) {
+            return new Translation(text, false);
+        }
+    }
+
+    // before 보다 오래된 메세지 중 최신 limit 개를 시간 순으로 반환 (before 가 없으면 가장 최근 메세지부터)
+    // 다음 페이지는 응답 첫 메세지의 id 를 before 로 넘겨 조회한다
+    public List<ChatMessageResponse> readMessagePage(Long roomId, Long before, int limit) {
+        long cursor = before == null ? Long.MAX_VALUE : before;
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        // 아직 저장되지 않은 메세지도 포함
+        Map<Long, ChatMessageResponse> messages = new TreeMap<>(Comparator.reverseOrder());
+        chatMessageRepository.findPageByRoomBefore(roomId, cursor, Limit.of(pageSize))
+                .forEach(message -> messages.put(message.getId(), message));
+        chatMessageWriteBehind.pending(roomId).stream()
+                .filter(chatMessage -> chatMessage.getId() < cursor)
+                .forEach(chatMessage -> messages.putIfAbsent(chatMessage.getId(), ChatMessageResponse.builder()
+                        .id(chatMessage.getId())
+                        .sender(chatMessage.getSender())
+                        .message(chatMessage.getMessage())
+                        .koreanMessage(chatMessage.getKoreanMessage())
+                        .createdAt(chatMessage.getCreatedAt())
+                        .roomId(roomId)
+                        .translationPending(chatMessage.isTranslationPending())
+                        .build()));
+
+        List<ChatMessageResponse> page = new ArrayList<>(messages.values().stream().limit(pageSize).toList());
+        Collections.reverse(page);
+        return page;
     }
 
     public List<ChatRoomResponse> readAllChatRoom() {
@@ -159,17 +273,17 @@ public class ChatService {
                 sender,
                 message,
                 koreanMessage,
-                room
+                room.getId()
         );
         chatMessageRepository.save(newMessage);
-        ChatMessageResponse chatResponse = new ChatMessageResponse(
-                newMessage.getId(),
-                newMessage.getSender(),
-                newMessage.getMessage(),
-                newMessage.getKoreanMessage(),
-                newMessage.getCreatedAt(),
-                newMessage.getChatRoom().getId()
-        );
+        ChatMessageResponse chatResponse = ChatMessageResponse.builder()
+                .id(newMessage.getId())
+                .sender(newMessage.getSender())
+                .message(newMessage.getMessage())
+                .koreanMessage(newMessage.getKoreanMessage())
+                .createdAt(newMessage.getCreatedAt())
+                .roomId(newMessage.getChatRoomId())
+                .build();
         messagingTemplate.convertAndSend("/sub/chat/rooms/" + room.getId(), chatResponse);
         return new ChatRoomResponse(room.getId(), room.getRoomCode());
     }
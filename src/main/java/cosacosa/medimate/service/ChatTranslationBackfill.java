@@ -0,0 +1,72 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatTranslationBackfillProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.repository.ChatMessageRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 번역 서비스 장애 중 원문으로만 전달된 채팅 메세지(translationPending)를 제공자가 회복된 뒤 번역해 채운다.
+ * 회로가 열려 있는 동안은 건너뛰고, half-open 상태에서 보낸 요청이 성공하면 회로가 닫히며 나머지도 이어서 처리된다.
+ * 번역을 기다리는 배치는 blockingScheduler 에서 실행하므로 @Scheduled 스레드(write-behind flush 등과 공유)를 붙잡지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatTranslationBackfill {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatService chatService;
+    private final AiCircuitBreakers aiCircuitBreakers;
+    private final ChatTranslationBackfillProperties props;
+    private final Scheduler blockingScheduler;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${chat.translation-backfill.interval:30s}")
+    public void backfill() {
+        if (!props.isEnabled() || aiCircuitBreakers.isOpen(AiCircuitBreakers.CHAT_TRANSLATION)) {
+            return;
+        }
+        // 이전 배치가 아직 번역 중이면 겹쳐 실행하지 않는다
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        blockingScheduler.schedule(() -> {
+            try {
+                backfillBatch();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private void backfillBatch() {
+        List<ChatMessage> pending = chatMessageRepository.findByTranslationPendingTrueOrderByIdAsc(Limit.of(props.getBatchSize()));
+        for (ChatMessage message : pending) {
+            try {
+                String translatedText = chatService.translate(message.getSourceText(), message.getTargetLanguage()).block();
+                if (translatedText != null) {
+                    chatService.completeTranslation(message.getId(), translatedText);
+                }
+            } catch (CallNotPermittedException e) {
+                // 아직 회복되지 않았으면 다음 주기에 다시 시도
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to backfill translation for chat message {}: {}", message.getId(), e.toString());
+                if (aiCircuitBreakers.isOpen(AiCircuitBreakers.CHAT_TRANSLATION)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -3,14 +3,20 @@ package cosacosa.medimate.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
 
+/**
+ * 이미지 내용의 SHA-256을 S3 키로 사용한다 (content-addressed).
+ * 같은 이미지는 같은 키가 되므로 이미 올라가 있는 객체는 다시 업로드하지 않는다.
+ */
 @Service
 @RequiredArgsConstructor
 public class FileUploadService {
@@ -19,23 +25,51 @@ public class FileUploadService {
     @Value("${cloud.aws.s3.bucket}")
     private String bucket;
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
+    // 스풀링된 파일에서 바로 업로드 (요청이 끝난 뒤 비동기 작업에서도 사용)
+    public String uploadFile(Path file, String sha256, String originalFilename, String contentType) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
             throw new RuntimeException("이미지 파일 없음");
         }
+        String key = keyOf(sha256, originalFilename);
+        if (!exists(key)) {
+            s3Client.putObject(putRequest(key, contentType, Files.size(file)), RequestBody.fromFile(file));
+        }
+        return urlOf(key);
+    }
 
-        String originalFilename = file.getOriginalFilename();
-        String uniqueFilename = UUID.randomUUID().toString() + "-" + originalFilename;
-
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+    private PutObjectRequest putRequest(String key, String contentType, long contentLength) {
+        return PutObjectRequest.builder()
                 .bucket(bucket)
-                .key(uniqueFilename)
-                .contentType(file.getContentType())
-                .contentLength(file.getSize())
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
                 .build();
+    }
 
-        s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+    private boolean exists(String key) {
+        try {
+            s3Client.headObject(builder -> builder.bucket(bucket).key(key));
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private String urlOf(String key) {
+        return s3Client.utilities().getUrl(builder -> builder.bucket(bucket).key(key)).toExternalForm();
+    }
 
-        return s3Client.utilities().getUrl(builder -> builder.bucket(bucket).key(uniqueFilename)).toExternalForm();
+    private static String keyOf(String sha256, String originalFilename) {
+        String extension = "";
+        if (originalFilename != null) {
+            int dot = originalFilename.lastIndexOf('.');
+            if (dot >= 0 && dot < originalFilename.length() - 1) {
+                extension = originalFilename.substring(dot).toLowerCase(Locale.ROOT);
+            }
+        }
+        return "prescriptions/" + sha256 + extension;
     }
 }
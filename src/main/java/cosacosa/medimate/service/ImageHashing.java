@@ -0,0 +1,34 @@
+package cosacosa.medimate.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// 이미지를 파일로 복사하는 한 번의 스트리밍 과정에서 SHA-256을 함께 계산한다.
+final class ImageHashing {
+
+    private ImageHashing() {
+    }
+
+    // target 으로 복사하면서 계산한 해시를 반환
+    static String spool(InputStream in, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestIn = new DigestInputStream(in, digest)) {
+            Files.copy(digestIn, target);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OpenAI / Upstage 호출을 모아둔 비동기 게이트웨이.
+ * 응답을 기다리는 동안 스레드를 점유하지 않으며, 결과는 blockingScheduler 에서 전달되므로
+ * 호출 측에서 이어서 JPA 등 블로킹 작업을 해도 Netty 이벤트 루프를 막지 않는다.
+ * call 은 AiCircuitBreakers 의 호출 지점 이름으로, 서킷 브레이커와 타임 리미터는 호출 한도(LlmRateLimiter) 안쪽의
+ * HTTP 요청 한 번마다 적용한다. 대기열에서 기다린 시간이나 429 재시도 대기는 제공자 장애로 세지 않고,
+ * 대신 호출 지점별 기한(llm.rate-limit.deadlines)으로 제한한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LlmGateway {
+
+    private final WebClient openAiWebClient;
+    private final WebClient upstageWebClient;
+    private final Scheduler blockingScheduler;
+    private final ObjectMapper objectMapper;
+    private final LlmRateLimiter rateLimiter;
+    private final AiCircuitBreakers aiCircuitBreakers;
+    private final MeterRegistry meterRegistry;
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = new ParameterizedTypeReference<>() {};
+
+    // OpenAI chat completion 호출 후 choices[0].message.content 를 반환 (없으면 empty)
+    public Mono<String> chat(String call, Map<String, Object> requestBody) {
+        return chat(call, requestBody, LlmPriority.BACKGROUND);
+    }
+
+    public Mono<String> chat(String call, Map<String, Object> requestBody, LlmPriority priority) {
+        return aiCircuitBreakers.failFastIfOpen(call, rateLimiter.execute("openai", modelOf(requestBody), priority,
+                                rateLimiter.deadlineOf(call), requestBody,
+                        () -> aiCircuitBreakers.protect(call, post(openAiWebClient, "/chat/completions", requestBody, "OpenAI"))))
+                .publishOn(blockingScheduler);
+    }
+
+    public Flux<String> chatStream(String call, Map<String, Object> requestBody) {
+        return chatStream(call, requestBody, LlmPriority.BACKGROUND);
+    }
+
+    // stream: true 로 호출해 choices[0].delta.content 조각을 도착하는 대로 전달
+    public Flux<String> chatStream(String call, Map<String, Object> requestBody, LlmPriority priority) {
+        Map<String, Object> body = new HashMap<>(requestBody);
+        body.put("stream", true);
+        body.put("stream_options", Map.of("include_usage", true)); // 마지막 청크에 토큰 사용량 포함
+
+        return aiCircuitBreakers.failFastIfOpen(call, rateLimiter.executeMany("openai", modelOf(requestBody), priority,
+                                rateLimiter.deadlineOf(call), requestBody,
+                        () -> aiCircuitBreakers.protect(call, stream(body))))
+                .publishOn(blockingScheduler);
+    }
+
+    private Flux<String> stream(Map<String, Object> body) {
+        String model = modelOf(body);
+        return openAiWebClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, clientResponse -> {
+                    log.error("OpenAI API error: {}", clientResponse.statusCode());
+                    return clientResponse.createException();
+                })
+                .bodyToFlux(SSE_TYPE)
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data))
+                .mapNotNull(data -> deltaContent(model, data));
+    }
+
+    // Upstage information extraction 호출 후 choices[0].message.content 를 반환 (없으면 empty)
+    public Mono<String> extract(Map<String, Object> requestBody) {
+        String call = AiCircuitBreakers.PRESCRIPTION_EXTRACT;
+        return aiCircuitBreakers.failFastIfOpen(call, rateLimiter.execute("upstage", modelOf(requestBody), LlmPriority.BACKGROUND,
+                                rateLimiter.deadlineOf(call), requestBody,
+                        () -> aiCircuitBreakers.protect(call, post(upstageWebClient, "/v1/information-extraction/chat/completions", requestBody, "Upstage"))))
+                .publishOn(blockingScheduler);
+    }
+
+    // 요청 본문은 StreamingJsonBody 로 보내므로 InlineFile 값(이미지 등)은 파일에서 읽는 대로 base64 로 전송된다
+    private Mono<String> post(WebClient client, String uri, Map<String, Object> requestBody, String apiType) {
+        return Mono.fromCallable(() -> StreamingJsonBody.of(objectMapper, requestBody))
+                .flatMap(body -> post(client, uri, body, apiType, modelOf(requestBody)));
+    }
+
+    private Mono<String> post(WebClient client, String uri, StreamingJsonBody body, String apiType, String model) {
+        return client.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.contentLength())
+                .accept(MediaType.APPLICATION_JSON)
+                .body(body.publisher(blockingScheduler), DataBuffer.class)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, clientResponse -> {
+                    log.error("{} API error: {}", apiType, clientResponse.statusCode());
+                    return clientResponse.createException();
+                })
+                .bodyToMono(JsonNode.class)
+                .doOnNext(root -> recordUsage(apiType.toLowerCase(Locale.ROOT), model, root.path("usage")))
+                .flatMap(root -> Mono.justOrEmpty(messageContent(root)));
+    }
+
+    private static String modelOf(Map<String, Object> requestBody) {
+        return String.valueOf(requestBody.getOrDefault("model", "unknown"));
+    }
+
+    // 응답의 usage 를 llm.tokens{provider, model, type=prompt|completion} 으로 누적 (생성 방식별 토큰 비교용)
+    private void recordUsage(String provider, String model, JsonNode usage) {
+        if (!usage.isObject()) {
+            return;
+        }
+        meterRegistry.counter("llm.tokens", "provider", provider, "model", model, "type", "prompt")
+                .increment(usage.path("prompt_tokens").asLong());
+        meterRegistry.counter("llm.tokens", "provider", provider, "model", model, "type", "completion")
+                .increment(usage.path("completion_tokens").asLong());
+    }
+
+    private String deltaContent(String model, String data) {
+        try {
+            JsonNode root = objectMapper.readTree(data);
+            recordUsage("openai", model, root.path("usage"));
+            JsonNode content = root.path("choices").path(0).path("delta").path("content");
+            return content.isTextual() && !content.asText().isEmpty() ? content.asText() : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping malformed OpenAI stream chunk: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String messageContent(JsonNode root) {
+        JsonNode content = root.path("choices").path(0).path("message").path("content");
+        if (content.isMissingNode() || content.isNull() || content.asText().isBlank()) {
+            return null;
+        }
+        return content.asText();
+    }
+}
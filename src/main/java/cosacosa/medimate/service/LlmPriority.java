@@ -0,0 +1,6 @@
+package cosacosa.medimate.service;
+
+// 호출 한도에 걸려 대기할 때의 우선순위. 실시간 채팅 번역이 처방전/문진 생성보다 먼저 처리된다
+public enum LlmPriority {
+    INTERACTIVE, BACKGROUND
+}
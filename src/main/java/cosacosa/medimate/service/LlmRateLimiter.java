@@ -0,0 +1,327 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * OpenAI / Upstage 호출 한도 관리 (provider + model 단위).
+ * 동시 요청 수, 분당 요청 수, 분당 토큰 수(추정치)를 넘지 않도록 요청을 우선순위 큐에서 대기시키고,
+ * 429 / 5xx 응답은 Retry-After 를 따르거나 jitter 를 준 지수 백오프로 재시도한다.
+ * 429 를 받으면 같은 모델의 다른 요청도 대기 시간 동안 보내지 않는다.
+ * 호출마다 기한(deadline)이 있어 그 안에 허가를 받지 못하면 TimeoutException 으로 끝내고,
+ * Retry-After(또는 백오프)가 남은 기한보다 길면 기다리지 않고 받은 오류로 바로 실패한다.
+ */
+@Component
+@Slf4j
+public class LlmRateLimiter {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LlmRateLimitProperties props;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LlmRateLimiter(LlmRateLimitProperties props, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> execute(String provider, String model, LlmPriority priority, Duration deadline,
+                               Object requestBody, Supplier<Mono<T>> call) {
+        return executeMany(provider, model, priority, deadline, requestBody, call).singleOrEmpty();
+    }
+
+    // 응답 상태 오류(429/5xx)는 본문을 받기 전에 발생하므로 스트리밍 호출도 중복 없이 재시도된다
+    // deadline: 구독한 때부터 허가 대기와 재시도 대기에 쓸 수 있는 시간 (요청 한 번의 응답 시간은 호출 측 타임 리미터가 제한)
+    public <T> Flux<T> executeMany(String provider, String model, LlmPriority priority, Duration deadline,
+                                   Object requestBody, Supplier<? extends Publisher<T>> call) {
+        Bucket bucket = buckets.computeIfAbsent(provider + ":" + model, key -> new Bucket(provider, model, limitOf(key)));
+        int tokens = bucket.limit.getTokensPerMinute() > 0 ? estimateTokens(requestBody) : 0;
+
+        return Flux.defer(() -> {
+            long deadlineNanos = System.nanoTime() + deadline.toNanos();
+            return Flux.usingWhen(
+                            Mono.defer(() -> bucket.acquire(priority, tokens).timeout(remaining(deadlineNanos),
+                                    Mono.error(() -> new TimeoutException(provider + " " + model + " 호출 한도 대기가 기한(" + deadline + ")을 넘었습니다.")))),
+                            permit -> call.get(),
+                            Permit::releaseAsync,
+                            (permit, error) -> permit.releaseAsync(),
+                            Permit::releaseAsync)
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> retryDelay(bucket, signal, deadlineNanos))));
+        });
+    }
+
+    private Mono<Long> retryDelay(Bucket bucket, Retry.RetrySignal signal, long deadlineNanos) {
+        Throwable failure = signal.failure();
+        if (!(failure instanceof WebClientResponseException response)
+                || !isRetryable(response.getStatusCode().value())
+                || signal.totalRetries() >= props.getMaxRetries()) {
+            return Mono.error(failure);
+        }
+        int status = response.getStatusCode().value();
+        Duration delay = retryAfter(response.getHeaders()).orElseGet(() -> backoff(signal.totalRetries()));
+        if (status == 429) {
+            bucket.pauseFor(delay);
+        }
+        // 기한 안에 다시 보낼 수 없으면 기다리지 않고 받은 오류(429/5xx, Retry-After 포함)로 끝낸다
+        if (delay.compareTo(remaining(deadlineNanos)) > 0) {
+            meterRegistry.counter("llm.limiter.retries.abandoned",
+                    "provider", bucket.provider, "model", bucket.model, "status", String.valueOf(status)).increment();
+            log.warn("{} {} returned {}, retry delay {}ms exceeds remaining deadline; giving up",
+                    bucket.provider, bucket.model, status, delay.toMillis());
+            return Mono.error(failure);
+        }
+        meterRegistry.counter("llm.limiter.retries",
+                "provider", bucket.provider, "model", bucket.model, "status", String.valueOf(status)).increment();
+        log.warn("{} {} returned {}, retrying in {}ms (attempt {})",
+                bucket.provider, bucket.model, status, delay.toMillis(), signal.totalRetries() + 1);
+        return Mono.delay(delay);
+    }
+
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public Duration deadlineOf(String call) {
+        return props.deadlineOf(call);
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // 지수 백오프 + equal jitter: [base/2, base) 구간의 임의 값
+    private Duration backoff(long retries) {
+        long base = Math.min(props.getMaxBackoff().toMillis(), props.getInitialBackoff().toMillis() << Math.min(retries, 20));
+        long half = Math.max(1, base / 2);
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half));
+    }
+
+    static Optional<Duration> retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // HTTP-date 형식
+        }
+        try {
+            Duration until = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return Optional.of(until.isNegative() ? Duration.ZERO : until);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    // 문자 4개당 토큰 1개로 프롬프트를 추정하고 응답 토큰(max_tokens 또는 기본값)을 더한다
+    private int estimateTokens(Object requestBody) {
+        int completion = props.getDefaultCompletionTokens();
+        if (requestBody instanceof Map<?, ?> map && map.get("max_tokens") instanceof Number maxTokens) {
+            completion = maxTokens.intValue();
+        }
+        try {
+            return objectMapper.writeValueAsString(requestBody).length() / 4 + completion;
+        } catch (JsonProcessingException e) {
+            return completion;
+        }
+    }
+
+    private LlmRateLimitProperties.Limit limitOf(String key) {
+        return props.getLimits().getOrDefault(key, props.getDefaultLimit());
+    }
+
+    private record Waiter(LlmPriority priority, long sequence, int tokens, long enqueuedNanos, MonoSink<Permit> sink, Permit permit) {}
+
+    private final class Permit {
+        private final Bucket bucket;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        private Mono<Void> releaseAsync() {
+            return Mono.fromRunnable(this::release);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bucket.release();
+            }
+        }
+    }
+
+    private final class Bucket {
+        private final String provider;
+        private final String model;
+        private final LlmRateLimitProperties.Limit limit;
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+                Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+
+        // 아래 상태는 모두 this 로 동기화
+        private int inFlight;
+        private double requestAllowance;
+        private double tokenAllowance;
+        private long lastRefillNanos = System.nanoTime();
+        private long pausedUntilNanos;
+        private boolean wakeUpScheduled;
+
+        private Bucket(String provider, String model, LlmRateLimitProperties.Limit limit) {
+            this.provider = provider;
+            this.model = model;
+            this.limit = limit;
+            this.pausedUntilNanos = lastRefillNanos;
+            this.requestAllowance = limit.getRequestsPerMinute();
+            this.tokenAllowance = limit.getTokensPerMinute();
+            Gauge.builder("llm.limiter.queue.size", this, bucket -> bucket.queueSize())
+                    .tags("provider", provider, "model", model)
+                    .register(meterRegistry);
+        }
+
+        private Mono<Permit> acquire(LlmPriority priority, int tokens) {
+            return Mono.create(sink -> {
+                Waiter waiter = new Waiter(priority, sequence.incrementAndGet(), tokens, System.nanoTime(), sink, new Permit(this));
+                synchronized (this) {
+                    waiters.add(waiter);
+                }
+                sink.onCancel(() -> {
+                    boolean stillWaiting;
+                    synchronized (this) {
+                        stillWaiting = waiters.remove(waiter);
+                    }
+                    // 허가와 취소가 엇갈린 경우 받은 허가를 돌려준다
+                    if (!stillWaiting) {
+                        waiter.permit().release();
+                    }
+                });
+                drain();
+            });
+        }
+
+        private void release() {
+            synchronized (this) {
+                inFlight--;
+            }
+            drain();
+        }
+
+        private void pauseFor(Duration delay) {
+            synchronized (this) {
+                long until = System.nanoTime() + delay.toNanos();
+                if (until - pausedUntilNanos > 0) {
+                    pausedUntilNanos = until;
+                }
+            }
+        }
+
+        private synchronized int queueSize() {
+            return waiters.size();
+        }
+
+        private void drain() {
+            List<Waiter> granted = new ArrayList<>();
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                long waitNanos = 0;
+                while (!waiters.isEmpty() && inFlight < limit.getMaxConcurrency()) {
+                    Waiter head = waiters.peek();
+                    waitNanos = nanosUntilAllowed(head, now);
+                    if (waitNanos > 0) {
+                        break;
+                    }
+                    waiters.poll();
+                    inFlight++;
+                    if (limit.getRequestsPerMinute() > 0) requestAllowance -= 1;
+                    if (limit.getTokensPerMinute() > 0) tokenAllowance -= Math.min(head.tokens(), limit.getTokensPerMinute());
+                    granted.add(head);
+                }
+                // 한도 회복을 기다리는 요청이 있으면 그 시점에 다시 확인
+                if (waitNanos > 0 && !wakeUpScheduled) {
+                    wakeUpScheduled = true;
+                    Schedulers.parallel().schedule(this::wakeUp, waitNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            for (Waiter waiter : granted) {
+                Timer.builder("llm.limiter.queue.wait")
+                        .tags("provider", provider, "model", model, "priority", waiter.priority().name())
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - waiter.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                waiter.sink().success(waiter.permit());
+            }
+        }
+
+        private void wakeUp() {
+            synchronized (this) {
+                wakeUpScheduled = false;
+            }
+            drain();
+        }
+
+        private long nanosUntilAllowed(Waiter head, long now) {
+            long wait = Math.max(0, pausedUntilNanos - now);
+            if (limit.getRequestsPerMinute() > 0 && requestAllowance < 1) {
+                wait = Math.max(wait, nanosToRefill(1 - requestAllowance, limit.getRequestsPerMinute()));
+            }
+            int tokens = Math.min(head.tokens(), limit.getTokensPerMinute());
+            if (limit.getTokensPerMinute() > 0 && tokenAllowance < tokens) {
+                wait = Math.max(wait, nanosToRefill(tokens - tokenAllowance, limit.getTokensPerMinute()));
+            }
+            return wait;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            lastRefillNanos = now;
+            if (limit.getRequestsPerMinute() > 0) {
+                requestAllowance = Math.min(limit.getRequestsPerMinute(),
+                        requestAllowance + (double) elapsed * limit.getRequestsPerMinute() / MINUTE_NANOS);
+            }
+            if (limit.getTokensPerMinute() > 0) {
+                tokenAllowance = Math.min(limit.getTokensPerMinute(),
+                        tokenAllowance + (double) elapsed * limit.getTokensPerMinute() / MINUTE_NANOS);
+            }
+        }
+
+        private static long nanosToRefill(double missing, int perMinute) {
+            return Math.max(1, (long) Math.ceil(missing * MINUTE_NANOS / perMinute));
+        }
+    }
+}
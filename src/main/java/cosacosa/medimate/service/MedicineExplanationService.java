@@ -0,0 +1,178 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.domain.MedicineExplanation;
+import cosacosa.medimate.repository.MedicineExplanationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 약품 단위 · 언어 단위 설명글 저장소.
+ * 처방전마다 같은 약(타이레놀 등)의 설명을 다시 생성하지 않도록, LLM이 만든 4가지 블록을 약품별로 잘라 저장하고
+ * 다음 처방전에서는 저장된 항목을 이어 붙여 본문과 제목을 만든다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicineExplanationService {
+
+    // 단순 문자열 블록: "<의약품명: 이름>" 줄로 약품이 시작 (사용자 언어 블록은 라벨이 번역되어 있음)
+    private static final Pattern PLAIN_HEADER = Pattern.compile("(?m)^<[^<>\\n]+>[ \\t]*$");
+    // 마크다운 블록: "# 💊 의약품명: 이름" 줄로 약품이 시작
+    private static final Pattern MD_HEADER = Pattern.compile("(?m)^# ");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MedicineExplanationRepository repository;
+
+    public record Contents(String title, String content, String koreanContent, String contentMd, String koreanContentMd) {}
+
+    // 정규화된 약품명 -> 저장된 설명
+    public Map<String, MedicineExplanation> findCached(List<String> medicineNames, String language) {
+        List<String> keys = medicineNames.stream().map(MedicineExplanationService::normalize).distinct().toList();
+        return repository.findByLanguageAndMedicineNameIn(languageKey(language), keys).stream()
+                .collect(Collectors.toMap(MedicineExplanation::getMedicineName, Function.identity(), (a, b) -> a));
+    }
+
+    public List<String> missing(List<String> medicineNames, Map<String, MedicineExplanation> cached) {
+        return medicineNames.stream()
+                .filter(name -> !cached.containsKey(normalize(name)))
+                .collect(Collectors.toCollection(LinkedHashSet::new))
+                .stream().toList();
+    }
+
+    /**
+     * LLM이 medicineNames 순서대로 생성한 블록을 약품별로 잘라 저장한다.
+     * 블록의 약품 수가 목록과 맞지 않으면 잘못 잘릴 수 있으므로 저장하지 않고 빈 맵을 반환한다.
+     */
+    public Map<String, MedicineExplanation> storeGenerated(List<String> medicineNames, String language, Contents generated, List<String> summaries) {
+        List<String> koreanContents = split(generated.koreanContent(), PLAIN_HEADER);
+        List<String> contents = split(generated.content(), PLAIN_HEADER);
+        List<String> koreanContentsMd = split(generated.koreanContentMd(), MD_HEADER);
+        List<String> contentsMd = split(generated.contentMd(), MD_HEADER);
+
+        int count = medicineNames.size();
+        if (koreanContents.size() != count || contents.size() != count
+                || koreanContentsMd.size() != count || contentsMd.size() != count) {
+            log.warn("Generated blocks do not match {} medicines; skipping explanation cache", count);
+            return Map.of();
+        }
+
+        Map<String, MedicineExplanation> stored = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            save(new MedicineExplanation(
+                    normalize(medicineNames.get(i)),
+                    languageKey(language),
+                    contents.get(i),
+                    koreanContents.get(i),
+                    contentsMd.get(i),
+                    koreanContentsMd.get(i),
+                    i < summaries.size() ? summaries.get(i) : null
+            ), stored);
+        }
+        return stored;
+    }
+
+    /**
+     * structured 모드의 JSON 결과를 약품별로 렌더링해 저장한다. 잘라낼 필요가 없으므로 약품 수만 맞으면 된다.
+     * 약품 수가 목록과 맞지 않으면 어느 약품의 설명인지 알 수 없으므로 저장하지 않고 빈 맵을 반환한다.
+     */
+    public Map<String, MedicineExplanation> storeStructured(List<String> medicineNames, String language, PrescriptionDetails generated) {
+        List<PrescriptionDetails.Medicine> medicines = generated.medicines() == null ? List.of() : generated.medicines();
+        int count = medicineNames.size();
+        if (medicines.size() != count) {
+            log.warn("Generated {} medicines do not match {} requested; skipping explanation cache", medicines.size(), count);
+            return Map.of();
+        }
+
+        Map<String, MedicineExplanation> stored = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            PrescriptionDetails.Medicine medicine = medicines.get(i);
+            PrescriptionRenderer.Rendered rendered = PrescriptionRenderer.render(medicine, generated.labels());
+            save(new MedicineExplanation(
+                    normalize(medicineNames.get(i)),
+                    languageKey(language),
+                    rendered.content(),
+                    rendered.koreanContent(),
+                    rendered.contentMd(),
+                    rendered.koreanContentMd(),
+                    medicine.summary() == null || medicine.summary().isBlank() ? null : medicine.summary().strip()
+            ), stored);
+        }
+        return stored;
+    }
+
+    private void save(MedicineExplanation explanation, Map<String, MedicineExplanation> stored) {
+        try {
+            stored.put(explanation.getMedicineName(), repository.save(explanation));
+        } catch (DataIntegrityViolationException e) {
+            // 동시에 같은 약품을 생성한 다른 요청이 먼저 저장한 경우 - 이번 결과를 그대로 사용
+            stored.put(explanation.getMedicineName(), explanation);
+        }
+    }
+
+    // 저장된 설명을 medicineNames 순서대로 이어 붙인다. 제목은 약품별 용도 요약을 조합한다.
+    public Contents assemble(List<String> medicineNames, Map<String, MedicineExplanation> explanations) {
+        List<MedicineExplanation> ordered = medicineNames.stream()
+                .map(name -> explanations.get(normalize(name)))
+                .filter(Objects::nonNull)
+                .toList();
+
+        String title = ordered.stream()
+                .map(MedicineExplanation::getSummary)
+                .filter(summary -> summary != null && !summary.isBlank())
+                .distinct()
+                .collect(Collectors.joining(", "));
+
+        return new Contents(
+                title,
+                join(ordered, MedicineExplanation::getContent),
+                join(ordered, MedicineExplanation::getKoreanContent),
+                join(ordered, MedicineExplanation::getContentMd),
+                join(ordered, MedicineExplanation::getKoreanContentMd)
+        );
+    }
+
+    public static String normalize(String medicineName) {
+        return WHITESPACE.matcher(medicineName.strip()).replaceAll(" ");
+    }
+
+    private static String languageKey(String language) {
+        return language == null ? "" : language.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String join(List<MedicineExplanation> explanations, Function<MedicineExplanation, String> field) {
+        return explanations.stream().map(field).collect(Collectors.joining("\n\n"));
+    }
+
+    private static List<String> split(String block, Pattern header) {
+        List<String> parts = new ArrayList<>();
+        if (block == null || block.isBlank()) {
+            return parts;
+        }
+        Matcher matcher = header.matcher(block);
+        int start = -1;
+        while (matcher.find()) {
+            if (start >= 0) {
+                parts.add(block.substring(start, matcher.start()).strip());
+            }
+            start = matcher.start();
+        }
+        if (start >= 0) {
+            parts.add(block.substring(start).strip());
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,84 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.PrecheckBatchProperties;
+import cosacosa.medimate.domain.Precheck;
+import cosacosa.medimate.dto.PrecheckBatchItemResponseDto;
+import cosacosa.medimate.dto.PrecheckBatchResponseDto;
+import cosacosa.medimate.dto.PrecheckRequestDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 단체 접수용 문진 일괄 등록.
+ * AI 생성은 precheck.batch.concurrency 개까지 동시에 진행하고, 성공한 문진은 한 번의 배치 insert 로 저장한다.
+ * 항목별 성공/실패를 함께 돌려주므로 일부가 실패해도 나머지는 등록된다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrecheckBatchService {
+
+    private final AiPrecheckService aiService;
+    private final PrecheckService precheckService;
+    private final PrecheckBatchProperties props;
+
+    private record Generated(int index, AiPrecheckService.AiResultFull ai, String error) {}
+
+    public Mono<PrecheckBatchResponseDto> createAll(List<PrecheckRequestDto> reqs) {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "등록할 문진이 없습니다.");
+        }
+        if (reqs.size() > props.getMaxItems()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "한 번에 최대 " + props.getMaxItems() + "개까지 등록할 수 있습니다.");
+        }
+
+        return Flux.range(0, reqs.size())
+                .flatMap(index -> aiService.generateTitleAndContent(reqs.get(index))
+                        .map(ai -> new Generated(index, ai, null))
+                        .onErrorResume(e -> {
+                            log.warn("Precheck batch item {} failed: {}", index, e.getMessage());
+                            return Mono.just(new Generated(index, null, "AI 문진 생성에 실패했습니다."));
+                        }), props.getConcurrency())
+                .collectSortedList(Comparator.comparingInt(Generated::index))
+                .map(generated -> saveSucceeded(reqs, generated));
+    }
+
+    private PrecheckBatchResponseDto saveSucceeded(List<PrecheckRequestDto> reqs, List<Generated> generated) {
+        List<Generated> succeeded = generated.stream().filter(g -> g.ai() != null).toList();
+        List<Precheck> saved = succeeded.isEmpty() ? List.of() : precheckService.saveAllWithAi(
+                succeeded.stream().map(g -> reqs.get(g.index())).toList(),
+                succeeded.stream().map(Generated::ai).toList());
+
+        List<PrecheckBatchItemResponseDto> results = new ArrayList<>(generated.size());
+        int savedIndex = 0;
+        for (Generated g : generated) {
+            if (g.ai() == null) {
+                results.add(PrecheckBatchItemResponseDto.builder()
+                        .index(g.index())
+                        .status("FAILED")
+                        .error(g.error())
+                        .build());
+            } else {
+                results.add(PrecheckBatchItemResponseDto.builder()
+                        .index(g.index())
+                        .status("CREATED")
+                        .precheck(precheckService.toCreateResponse(saved.get(savedIndex++)))
+                        .build());
+            }
+        }
+        return PrecheckBatchResponseDto.builder()
+                .created(succeeded.size())
+                .failed(generated.size() - succeeded.size())
+                .results(results)
+                .build();
+    }
+}
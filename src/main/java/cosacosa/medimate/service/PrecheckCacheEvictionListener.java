@@ -0,0 +1,21 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.domain.Precheck;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Precheck 엔티티가 수정/삭제되면 캐시된 상세 응답을 제거 (Hibernate 가 Spring 빈으로 생성)
+@Component
+@RequiredArgsConstructor
+public class PrecheckCacheEvictionListener {
+
+    private final PrecheckResponseCache responseCache;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(Precheck precheck) {
+        responseCache.evict(precheck.getId());
+    }
+}
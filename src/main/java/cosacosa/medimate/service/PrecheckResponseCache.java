@@ -0,0 +1,40 @@
+package cosacosa.medimate.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cosacosa.medimate.config.PrecheckCacheProperties;
+import cosacosa.medimate.dto.PrecheckResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+/**
+ * GET /api/precheck/{id} 응답 캐시 (read-through).
+ * 문진이 수정/삭제되면 PrecheckCacheEvictionListener 가 해당 항목을 제거한다.
+ */
+@Service
+public class PrecheckResponseCache {
+
+    private final Cache<Long, PrecheckResponseDto> responses;
+
+    public PrecheckResponseCache(PrecheckCacheProperties props, MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(props.getMaximumSize())
+                .expireAfterWrite(props.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "precheck");
+    }
+
+    public PrecheckResponseDto get(Long precheckId) {
+        return responses.getIfPresent(precheckId);
+    }
+
+    public void put(Long precheckId, PrecheckResponseDto response) {
+        responses.put(precheckId, response);
+    }
+
+    public void evict(Long precheckId) {
+        responses.invalidate(precheckId);
+    }
+}
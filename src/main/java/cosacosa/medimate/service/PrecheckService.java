@@ -9,26 +9,73 @@ import cosacosa.medimate.repository.PrecheckRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class PrecheckService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PrecheckRepository repository;
     private final AiPrecheckService aiService;
+    private final PrecheckResponseCache responseCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // 진행 중인 AI 재생성 (precheck id → 공유 결과)
+    private final Map<Long, Mono<PrecheckResponseDto>> regenerations = new ConcurrentHashMap<>();
 
     @PersistenceContext
     private EntityManager em;
 
     @Transactional
     public Precheck saveWithAi(PrecheckRequestDto req, AiPrecheckService.AiResultFull ai) {
+        return repository.save(toEntity(req, ai, em.getReference(User.class, 1L)));
+    }
+
+    // 여러 문진을 한 트랜잭션에서 저장 (앱 발급 id 라 JDBC 배치 insert 로 전송된다)
+    @Transactional
+    public List<Precheck> saveAllWithAi(List<PrecheckRequestDto> reqs, List<AiPrecheckService.AiResultFull> ais) {
         User userRef = em.getReference(User.class, 1L);
-        Precheck entity = Precheck.builder()
+        List<Precheck> entities = new ArrayList<>(reqs.size());
+        for (int i = 0; i < reqs.size(); i++) {
+            entities.add(toEntity(reqs.get(i), ais.get(i), userRef));
+        }
+        return repository.saveAll(entities);
+    }
+
+    // 생성 중인 응답을 delta 이벤트로 보내고, 저장이 끝나면 done 이벤트로 결과 전달 (실패 시 error)
+    // AI 응답을 기다리는 동안에는 트랜잭션을 열지 않고 저장할 때만 연다
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ServerSentEvent<Object>> createStream(PrecheckRequestDto req) {
+        StringBuilder content = new StringBuilder();
+        Flux<ServerSentEvent<Object>> deltas = aiService.streamTitleAndContent(req)
+                .doOnNext(content::append)
+                .map(text -> ServerSentEvent.<Object>builder(Map.of("text", text)).event("delta").build());
+        Mono<ServerSentEvent<Object>> done = Mono.fromCallable(() -> aiService.parseResult(req, content.toString()))
+                .map(ai -> transactionTemplate.execute(status -> toCreateResponse(saveWithAi(req, ai))))
+                .map(response -> ServerSentEvent.<Object>builder(response).event("done").build());
+        return deltas.concatWith(done)
+                .onErrorResume(e -> Mono.just(ServerSentEvent.<Object>builder(Map.of("message", "사전 문진 생성에 실패했습니다.")).event("error").build()));
+    }
+
+    private Precheck toEntity(PrecheckRequestDto req, AiPrecheckService.AiResultFull ai, User userRef) {
+        return Precheck.builder()
                 .title(ai.title())
                 .content(ai.content())
                 .koreanContent(ai.koreanContent())
@@ -40,7 +87,6 @@ public class PrecheckService {
                 .description(req.getDescription())
                 .user(userRef)
                 .build();
-        return repository.save(entity);
     }
 
     public Precheck get(Long id) {
@@ -48,35 +94,65 @@ public class PrecheckService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Precheck not found: " + id));
     }
 
-    public List<PrecheckListItemResponseDto> list() {
-        return repository.findAllByOrderByIdDesc().stream()
-                .map(p -> PrecheckListItemResponseDto.builder()
-                        .id(p.getId())
-                        .title(p.getTitle())
-                        .createdAt(p.getCreatedAt())
-                        .build())
-                .toList();
+    // before 보다 id 가 작은 문진 중 최신 limit 개 (다음 페이지는 마지막 항목의 id 를 before 로 전달)
+    public List<PrecheckListItemResponseDto> list(Long before, int limit) {
+        return repository.findListPageBefore(
+                before == null ? Long.MAX_VALUE : before,
+                Limit.of(Math.clamp(limit, 1, MAX_PAGE_SIZE)));
     }
 
     public PrecheckResponseDto toCreateResponse(Precheck p) {
         return toDto(p);
     }
 
-    @Transactional
-    public PrecheckResponseDto toDetailResponse(Precheck p) {
-        boolean changed = false;
-
-        if (isBlank(p.getTitle()) || isBlank(p.getContent()) || isBlank(p.getKoreanContent())) {
-            PrecheckRequestDto req = toReqFromEntity(p);
-            AiPrecheckService.AiResultFull ai = aiService.generateTitleAndContent(req);
-
-            if (isBlank(p.getTitle())) { p.setTitle(ai.title()); changed = true; }
-            if (isBlank(p.getContent())) { p.setContent(ai.content()); changed = true; }
-            if (isBlank(p.getKoreanContent())) { p.setKoreanContent(ai.koreanContent()); changed = true; }
+    // 캐시 → DB 순으로 읽고, 비어 있는 필드가 있으면 AI로 채워 넣는다. AI 응답을 기다리는 동안에는 트랜잭션을 열지 않는다.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<PrecheckResponseDto> detail(Long id) {
+        PrecheckResponseDto cached = responseCache.get(id);
+        if (cached != null) {
+            return Mono.just(cached);
         }
+        Precheck p = get(id);
+        if (isComplete(p)) {
+            return Mono.just(cacheResponse(p));
+        }
+        // 같은 문진에 대한 동시 요청은 진행 중인 재생성 하나를 함께 기다린다 (OpenAI 호출 / 저장 1회)
+        AtomicReference<PrecheckResponseDto> finished = new AtomicReference<>();
+        Mono<PrecheckResponseDto> regeneration = regenerations.computeIfAbsent(id, key -> {
+            // 위에서 p 를 읽은 뒤 다른 요청의 재생성이 끝났을 수 있으므로 캐시와 DB 를 다시 확인한다 (null 이면 등록하지 않음)
+            PrecheckResponseDto done = responseCache.get(key);
+            if (done != null) {
+                finished.set(done);
+                return null;
+            }
+            Precheck latest = get(key);
+            if (isComplete(latest)) {
+                finished.set(cacheResponse(latest));
+                return null;
+            }
+            return regenerate(latest)
+                    .doFinally(signal -> regenerations.remove(key))
+                    .cache();
+        });
+        return regeneration != null ? regeneration : Mono.just(finished.get());
+    }
 
-        if (changed) repository.saveAndFlush(p);
-        return toDto(p);
+    private PrecheckResponseDto cacheResponse(Precheck p) {
+        PrecheckResponseDto response = toDto(p);
+        responseCache.put(p.getId(), response);
+        return response;
+    }
+
+    private Mono<PrecheckResponseDto> regenerate(Precheck p) {
+        PrecheckRequestDto req = toReqFromEntity(p);
+        return aiService.generateTitleAndContent(req).map(ai -> {
+            if (isBlank(p.getTitle())) p.setTitle(ai.title());
+            if (isBlank(p.getContent())) p.setContent(ai.content());
+            if (isBlank(p.getKoreanContent())) p.setKoreanContent(ai.koreanContent());
+            PrecheckResponseDto response = toDto(repository.saveAndFlush(p));
+            responseCache.put(p.getId(), response);
+            return response;
+        });
     }
 
     private PrecheckResponseDto toDto(Precheck p) {
@@ -106,6 +182,10 @@ public class PrecheckService {
         return req;
     }
 
+    private static boolean isComplete(Precheck p) {
+        return !isBlank(p.getTitle()) && !isBlank(p.getContent()) && !isBlank(p.getKoreanContent());
+    }
+
     private static boolean isBlank(String s) {
         return s == null || s.isBlank();
     }
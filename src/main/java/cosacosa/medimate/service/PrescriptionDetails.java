@@ -0,0 +1,24 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * structured 모드에서 LLM이 JSON 으로 생성하는 처방전 설명.
+ * 약품별 항목 내용만 한국어 / 사용자 언어로 한 번씩 받고, 단순 문자열 / 마크다운 본문은 PrescriptionRenderer 가 만든다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PrescriptionDetails(String title, Labels labels, List<Medicine> medicines) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Medicine(String name, String translatedName, String summary, Sections korean, Sections translated) {}
+
+    // 항목별 설명. 여러 줄이면 줄바꿈으로 구분
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Sections(String efficacy, String usage, String cautions, String interactions, String sideEffects, String storage) {}
+
+    // 사용자 언어로 번역된 항목 이름 (없으면 영어 이름 사용)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Labels(String medicine, String efficacy, String usage, String cautions, String interactions, String sideEffects, String storage) {}
+}
@@ -0,0 +1,281 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.PrescriptionJobProperties;
+import cosacosa.medimate.domain.Prescription;
+import cosacosa.medimate.domain.PrescriptionJob;
+import cosacosa.medimate.domain.PrescriptionJobStatus;
+import cosacosa.medimate.dto.PrescriptionJobResponse;
+import cosacosa.medimate.dto.PrescriptionRequest;
+import cosacosa.medimate.repository.PrescriptionJobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 처방전 생성(S3 업로드 → Upstage 추출 → OpenAI 생성)을 요청 스레드와 분리해 실행하는 작업 파이프라인.
+ * 각 단계의 결과를 prescription_job 테이블에 체크포인트로 남기므로 재시작 후에도 남은 단계부터 이어서 처리한다.
+ * 진행 상황은 /sub/prescription/jobs/{jobId} 로 발행된다.
+ * 작업은 한 인스턴스가 임대(owner, leaseExpiresAt)해 실행하고 heartbeat 로 임대를 연장한다.
+ * 임대가 만료된 작업(인스턴스 종료 등)은 다른 인스턴스가 조건부 update 로 하나만 가져가 이어서 실행한다.
+ * 완료도 임대 중인 인스턴스만 조건부 update 로 기록하고, 처방전을 저장한 뒤 완료 전에 멈춘 작업은
+ * 다시 실행될 때 같은 이미지·언어의 처방전을 찾아 생성하지 않고 완료한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrescriptionJobService {
+
+    private static final EnumSet<PrescriptionJobStatus> UNFINISHED = EnumSet.of(
+            PrescriptionJobStatus.QUEUED,
+            PrescriptionJobStatus.UPLOADING,
+            PrescriptionJobStatus.EXTRACTING,
+            PrescriptionJobStatus.GENERATING
+    );
+
+    private final PrescriptionJobRepository jobRepository;
+    private final PrescriptionService prescriptionService;
+    private final FileUploadService fileUploadService;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ThreadPoolTaskExecutor prescriptionJobExecutor;
+    private final PrescriptionJobProperties props;
+
+    // 이 인스턴스가 임대해 대기열에 넣었거나 실행 중인 작업
+    private final Set<Long> ownedJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void checkSpoolDir() throws IOException {
+        if (props.getSpoolDir() == null || props.getSpoolDir().isBlank()) {
+            props.setSpoolDir(new PrescriptionJobProperties().getSpoolDir());
+        }
+        Path spoolDir = Paths.get(props.getSpoolDir()).toAbsolutePath();
+        Files.createDirectories(spoolDir);
+        if (spoolDir.startsWith(Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath())) {
+            log.warn("Prescription job spool dir {} is under the temp directory; unfinished jobs may not survive a restart " +
+                    "or be resumed by other instances. Set PRESCRIPTION_JOB_SPOOL_DIR to a persistent shared volume", spoolDir);
+        }
+    }
+
+    public PrescriptionJobResponse submit(PrescriptionRequest dto) throws IOException {
+        MultipartFile image = dto.getImage();
+        if (image == null || image.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "이미지 파일 없음");
+        }
+
+        // 요청이 끝나면 multipart 임시 파일이 삭제되므로 작업용 디렉터리로 옮겨 둔다.
+        Path spoolDir = Paths.get(props.getSpoolDir());
+        Files.createDirectories(spoolDir);
+        Path spooled = spoolDir.resolve(UUID.randomUUID().toString());
+        String imageHash = ImageHashing.spool(image.getInputStream(), spooled);
+
+        PrescriptionJob job = new PrescriptionJob(
+                dto.getLanguage(),
+                spooled.toString(),
+                image.getOriginalFilename(),
+                image.getContentType(),
+                imageHash
+        );
+        job.lease(props.getOwnerId(), leaseUntil());
+
+        // 같은 이미지를 같은 언어로 이미 처리했다면 바로 완료 처리
+        Optional<Prescription> existing = prescriptionService.findExisting(imageHash, dto.getLanguage());
+        if (existing.isPresent()) {
+            job.complete(existing.get().getId());
+            deleteQuietly(spooled);
+            return toResponse(jobRepository.save(job));
+        }
+        job = jobRepository.save(job);
+
+        ownedJobs.add(job.getId());
+        try {
+            enqueue(job.getId());
+        } catch (TaskRejectedException e) {
+            ownedJobs.remove(job.getId());
+            jobRepository.delete(job);
+            deleteQuietly(spooled);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "처방전 처리 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return toResponse(job);
+    }
+
+    public PrescriptionJobResponse get(Long jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        claimExpiredJobs();
+    }
+
+    // 실행 중인 작업의 임대를 연장하고, 임대가 만료된 다른 작업을 가져온다
+    @Scheduled(fixedDelayString = "${prescription.job.heartbeat-interval:30s}")
+    public void heartbeat() {
+        for (Long jobId : ownedJobs) {
+            if (jobRepository.renewLease(jobId, props.getOwnerId(), leaseUntil()) == 0) {
+                log.warn("Lost lease on prescription job {}", jobId);
+                ownedJobs.remove(jobId);
+            }
+        }
+        claimExpiredJobs();
+    }
+
+    private void claimExpiredJobs() {
+        LocalDateTime now = now();
+        for (Long jobId : jobRepository.findClaimableIds(UNFINISHED, props.getOwnerId(), now)) {
+            // 시작 이벤트와 heartbeat 가 겹쳐도 같은 작업을 두 번 넣지 않도록 먼저 표시한다
+            if (!ownedJobs.add(jobId)) {
+                continue;
+            }
+            if (jobRepository.claim(jobId, props.getOwnerId(), leaseUntil(), now, UNFINISHED) == 0) {
+                ownedJobs.remove(jobId);
+                continue;
+            }
+            try {
+                log.info("Resuming prescription job {}", jobId);
+                enqueue(jobId);
+            } catch (TaskRejectedException e) {
+                // 대기열이 가득 차면 임대를 풀어 다른 인스턴스나 다음 heartbeat 가 가져가게 한다
+                ownedJobs.remove(jobId);
+                jobRepository.releaseLease(jobId, props.getOwnerId());
+            }
+        }
+    }
+
+    private void enqueue(Long jobId) {
+        prescriptionJobExecutor.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                ownedJobs.remove(jobId);
+            }
+        });
+    }
+
+    void run(Long jobId) {
+        PrescriptionJob job = findJob(jobId);
+        if (job.getStatus().isFinished()) {
+            return;
+        }
+        Path image = Paths.get(job.getImagePath());
+
+        try {
+            if (job.getImageUrl() == null) {
+                job = advance(job, PrescriptionJobStatus.UPLOADING);
+                job.uploaded(fileUploadService.uploadFile(image, job.getImageHash(), job.getOriginalFilename(), job.getContentType()));
+                job = jobRepository.save(job);
+            }
+
+            if (job.getMedicineNames() == null) {
+                job = advance(job, PrescriptionJobStatus.EXTRACTING);
+                // 작업 executor 의 크기가 동시 처리량의 상한이 되도록 워커 스레드는 각 단계가 끝날 때까지 기다린다.
+                List<String> names = prescriptionService.findKnownMedicineNames(job.getImageHash())
+                        .orElseGet(() -> prescriptionService.extractMedicineNames(image).block());
+                job.extracted(String.join("\n", names));
+                job = jobRepository.save(job);
+            }
+
+            job = advance(job, PrescriptionJobStatus.GENERATING);
+            // 이전 실행이 처방전을 저장하고 완료 처리 전에 멈췄다면 다시 생성하지 않는다
+            PrescriptionJob generating = job;
+            List<String> names = Arrays.asList(job.getMedicineNames().split("\n"));
+            Prescription prescription = prescriptionService.findExisting(job.getImageHash(), job.getLanguage())
+                    .orElseGet(() -> prescriptionService.generatePrescription(
+                            names, generating.getLanguage(), generating.getImageHash(), generating.getImageUrl()).block());
+
+            if (jobRepository.completeLeased(jobId, props.getOwnerId(), prescription.getId(), now(), PrescriptionJobStatus.COMPLETED) == 0) {
+                throw new LeaseLostException();
+            }
+            publish(findJob(jobId));
+            deleteQuietly(image);
+
+        } catch (LeaseLostException e) {
+            // 다른 인스턴스가 이어서 실행하므로 실패 처리하지 않고 스풀 파일도 남겨 둔다
+            log.warn("Stopping prescription job {}: lease was taken over", jobId);
+        } catch (Exception e) {
+            log.error("Prescription job {} failed: {}", jobId, e.getMessage(), e);
+            fail(job, "처방전 정보 생성에 실패했습니다.");
+            deleteQuietly(image);
+        }
+    }
+
+    private PrescriptionJob advance(PrescriptionJob job, PrescriptionJobStatus status) {
+        renewLease(job.getId());
+        job.moveTo(status);
+        PrescriptionJob saved = jobRepository.save(job);
+        publish(saved);
+        return saved;
+    }
+
+    private void renewLease(Long jobId) {
+        if (jobRepository.renewLease(jobId, props.getOwnerId(), leaseUntil()) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return now().plus(props.getLeaseDuration());
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("Asia/Seoul"));
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+
+    private void fail(PrescriptionJob job, String message) {
+        job.fail(message);
+        publish(jobRepository.save(job));
+    }
+
+    private void publish(PrescriptionJob job) {
+        messagingTemplate.convertAndSend("/sub/prescription/jobs/" + job.getId(), toResponse(job));
+    }
+
+    private PrescriptionJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prescription job not found: " + jobId));
+    }
+
+    private PrescriptionJobResponse toResponse(PrescriptionJob job) {
+        return new PrescriptionJobResponse(
+                job.getId(),
+                job.getStatus(),
+                job.getPrescriptionId(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getUpdatedAt()
+        );
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled image {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package cosacosa.medimate.service;
+
+/**
+ * 처방전 약품 설명 생성 프롬프트.
+ * details: 한 번의 요청으로 5개 섹션(KO, 사용자 언어, KO_MD, 사용자 언어 MD, TITLE + SUMMARY)을 순서대로 생성.
+ * section: 섹션 하나만 생성하는 프롬프트 (parallel 모드에서 섹션별 요청을 동시에 보낸다).
+ * 두 방식 모두 같은 센티넬 형식으로 출력하므로 응답을 이어 붙이면 같은 방식으로 파싱된다.
+ * structured: 약품별 항목 내용만 JSON(PrescriptionDetails)으로 생성. 본문 서식은 PrescriptionRenderer 가 만든다.
+ */
+public final class PrescriptionPrompts {
+
+    private PrescriptionPrompts() {
+    }
+
+    // 응답을 이어 붙이는 순서 (details 프롬프트의 출력 순서와 같다)
+    public enum Section { KO, LANG, KO_MD, LANG_MD, TITLE }
+
+    public static String details(String medicineNames, String language) {
+        return String.format("""
+        당신은 한국의 약학 정보에 능통한 전문 약사입니다. 처방전을 입력한 환자에게 처방받은 의약품들에 대해 쉼고 자세하게 설명해주는 글을 생성해야합니다.
+설명글은 총 4가지 버전이 있어야합니다. 1. 한국어로 작성된 약품 설명글(단순 문자열) 2. %2$s 언어로 작성된 약품 설명글(단순 문자열) 3. 한국어로 작성된 약품 설명글(단순 문자열) 4. %2$s 언어로 작성된 약품 설명글(단순 문자열)
+그리고 추가로 이 처방전을 한 줄로 요약한 제목을 생성해야 합니다. 환자가 약들을 처방받은 이유를 한 줄로 요약하는 제목을 %2$s 언어로 마지막에 생성해주세요.
+마지막으로 각 의약품의 용도를 %2$s 언어로 10단어 이내로 요약한 줄을 의약품 목록 순서대로 한 줄에 하나씩 생성해주세요.
+반드시 아래 출력 틀 그대로 생성해야 합니다.
+
+출력 시작 전후에 어떤 텍스트도 쓰지 마세요(설명/경고/요약/인용/코드블록 금지).
+
+의약품 목록:
+%1$s
+
+절대 준수사항:
+1) 의약품 목록의 품목만, 주어진 순서 그대로 출력합니다(추가/누락/재배열 금지). %2$s 버전의 경우는 의약품 이름을 해당 언어로 번역해서 보여줘야합니다.
+2) 한국어와 %2$s 두 버전의 생성물이 있어야합니다. 각각의 버전에는 다음 항목들이 포함됩니다.
+   효능, 사용법, 주의사항, 약물 상호작용, 부작용, 보관법
+   (약물 상호작용에는 같이 복용하면 위험할 수 있는 의약품들을 알려줘야합니다.)
+   (다음 항목으로 넘어갈 때는 출력 예시에서 보여주는 것과 같이 줄바꿈해야 합니다.)
+   (%2$s 버전의 경우에는 이 항목들도 %2$s 언어로 번역해서 보여줘야합니다.)
+3) 각 설명 줄은 탭 문자(\\t)로만 1단 들여쓰기 합니다(스페이스 들여쓰기 금지).
+4) 마크다운/번호/불릿/링크/추가 코멘트/콘텐츠 확장 금지.
+5) 의약품명은 입력 그대로 사용(번역/괄호 표기 금지).
+6) 두 블록 사이에는 빈 줄 1개만, 그 외 불필요한 빈 줄 금지.
+
+출력 예시:
+<<<BEGIN_KO>>>
+<의약품명: 의약품 이름1>
+[🎯효능]
+	...
+
+[🕒사용법]
+	...
+
+[⚠️주의사항]
+	...
+
+[🔄약물 상호작용]
+	...
+
+[🚨부작용]
+	...
+
+[📦보관법]
+	...
+
+<의약품명: 의약품 이름2>
+[🎯효능]
+	...
+
+[🕒사용법]
+	...
+
+[⚠️주의사항]
+	...
+
+[🔄약물 상호작용]
+	...
+
+[🚨부작용]
+	...
+
+[📦보관법]
+	...
+<<<END_KO>>>
+
+<<<BEGIN_%2$s>>>
+...(한국어 출력과 같은 형식)
+<<<END_%2$s>>>
+<<<BEGIN_KO_MD>>>
+# 💊 의약품명: 의약품 이름1
+
+## 🎯 효능
+...
+
+## 🕒 사용법
+...
+
+## ⚠️ 주의사항
+...
+
+## 🔄 약물 상호작용
+...
+
+## 🚨 부작용
+...
+
+## 📦 보관법
+...
+<<<END_KO_MD>>>
+<<<BEGIN_%2$s_MD>>>
+...(한국어 MD 출력과 같은 형식)
+<<<END_%2$s_MD>>>
+<<<BEGIN_TITLE>>>
+...(처방전을 요약하는 제목을 %2$s로 생성해주세요)
+<<<END_TITLE>>>
+<<<BEGIN_SUMMARY>>>
+...(의약품 이름1의 용도 요약)
+...(의약품 이름2의 용도 요약)
+<<<END_SUMMARY>>>
+""", medicineNames, language.toUpperCase());
+    }
+
+    public static String section(Section section, String medicineNames, String language) {
+        String body = switch (section) {
+            case KO -> KO_PLAIN;
+            case LANG -> LANG_PLAIN;
+            case KO_MD -> KO_MD;
+            case LANG_MD -> LANG_MD;
+            case TITLE -> TITLE;
+        };
+        return String.format(HEADER + body, medicineNames, language.toUpperCase());
+    }
+
+    public static String structured(String medicineNames, String language) {
+        return String.format("""
+        당신은 한국의 약학 정보에 능통한 전문 약사입니다. 처방전을 입력한 환자에게 처방받은 의약품들에 대해 쉽고 자세하게 설명해주는 글을 생성해야합니다.
+결과는 지정된 JSON 스키마로만 출력합니다. 항목 이름, 들여쓰기, 마크다운 서식은 서버에서 붙이므로 설명 내용만 작성합니다.
+
+의약품 목록:
+%1$s
+
+작성 규칙:
+1) medicines 에는 의약품 목록의 품목만, 주어진 순서 그대로 하나씩 넣습니다(추가/누락/재배열 금지).
+2) name 은 입력된 의약품명 그대로, translatedName 은 %2$s 언어로 번역한 의약품명입니다.
+3) korean 에는 한국어로, translated 에는 같은 내용을 %2$s 언어로 작성합니다. 각 항목은 다음과 같습니다.
+   efficacy(효능), usage(사용법), cautions(주의사항), interactions(약물 상호작용), sideEffects(부작용), storage(보관법)
+   (interactions 에는 같이 복용하면 위험할 수 있는 의약품들을 알려줘야합니다.)
+   (한 항목에 여러 내용이 있으면 줄바꿈으로 구분합니다. 번호/불릿/마크다운/링크 금지.)
+4) summary 는 각 의약품의 용도를 %2$s 언어로 10단어 이내로 요약한 한 줄입니다.
+5) title 은 환자가 약들을 처방받은 이유를 %2$s 언어로 한 줄로 요약한 제목입니다.
+6) labels 는 항목 이름(의약품명, 효능, 사용법, 주의사항, 약물 상호작용, 부작용, 보관법)을 %2$s 언어로 번역한 것입니다.
+""", medicineNames, language.toUpperCase());
+    }
+
+    private static final String HEADER = """
+        당신은 한국의 약학 정보에 능통한 전문 약사입니다. 처방전을 입력한 환자에게 처방받은 의약품들에 대해 쉽고 자세하게 설명해주는 글을 생성해야합니다.
+반드시 아래 출력 틀 그대로 생성해야 합니다.
+
+출력 시작 전후에 어떤 텍스트도 쓰지 마세요(설명/경고/요약/인용/코드블록 금지).
+
+의약품 목록:
+%1$s
+
+""";
+
+    // 설명글 공통 규칙 (제목 섹션 제외)
+    private static final String RULES = """
+절대 준수사항:
+1) 의약품 목록의 품목만, 주어진 순서 그대로 출력합니다(추가/누락/재배열 금지).
+2) 각 의약품마다 다음 항목들이 포함됩니다.
+   효능, 사용법, 주의사항, 약물 상호작용, 부작용, 보관법
+   (약물 상호작용에는 같이 복용하면 위험할 수 있는 의약품들을 알려줘야합니다.)
+   (다음 항목으로 넘어갈 때는 출력 예시에서 보여주는 것과 같이 줄바꿈해야 합니다.)
+3) 마크다운 형식이 아닌 경우 각 설명 줄은 탭 문자(\\t)로만 1단 들여쓰기 합니다(스페이스 들여쓰기 금지).
+4) 출력 예시에 없는 번호/불릿/링크/추가 코멘트/콘텐츠 확장 금지.
+5) 블록 안에 불필요한 빈 줄 금지.
+
+""";
+
+    private static final String PLAIN_EXAMPLE = """
+<의약품명: 의약품 이름1>
+[🎯효능]
+	...
+
+[🕒사용법]
+	...
+
+[⚠️주의사항]
+	...
+
+[🔄약물 상호작용]
+	...
+
+[🚨부작용]
+	...
+
+[📦보관법]
+	...
+
+<의약품명: 의약품 이름2>
+...(같은 형식)
+""";
+
+    private static final String MD_EXAMPLE = """
+# 💊 의약품명: 의약품 이름1
+
+## 🎯 효능
+...
+
+## 🕒 사용법
+...
+
+## ⚠️ 주의사항
+...
+
+## 🔄 약물 상호작용
+...
+
+## 🚨 부작용
+...
+
+## 📦 보관법
+...
+
+# 💊 의약품명: 의약품 이름2
+...(같은 형식)
+""";
+
+    private static final String KO_PLAIN = "한국어로 작성된 약품 설명글(단순 문자열)만 생성합니다. 의약품명은 입력 그대로 사용합니다(번역/괄호 표기 금지).\n\n"
+            + RULES + "출력 예시:\n<<<BEGIN_KO>>>\n" + PLAIN_EXAMPLE + "<<<END_KO>>>\n";
+
+    private static final String LANG_PLAIN = "%2$s 언어로 작성된 약품 설명글(단순 문자열)만 생성합니다. 의약품 이름과 항목 이름도 %2$s 언어로 번역해서 보여줘야합니다.\n\n"
+            + RULES + "출력 예시 (한국어 항목 이름은 %2$s 언어로 번역):\n<<<BEGIN_%2$s>>>\n" + PLAIN_EXAMPLE + "<<<END_%2$s>>>\n";
+
+    private static final String KO_MD = "한국어로 작성된 약품 설명글(마크다운)만 생성합니다. 의약품명은 입력 그대로 사용합니다(번역/괄호 표기 금지).\n\n"
+            + RULES + "출력 예시:\n<<<BEGIN_KO_MD>>>\n" + MD_EXAMPLE + "<<<END_KO_MD>>>\n";
+
+    private static final String LANG_MD = "%2$s 언어로 작성된 약품 설명글(마크다운)만 생성합니다. 의약품 이름과 항목 이름도 %2$s 언어로 번역해서 보여줘야합니다.\n\n"
+            + RULES + "출력 예시 (한국어 항목 이름은 %2$s 언어로 번역):\n<<<BEGIN_%2$s_MD>>>\n" + MD_EXAMPLE + "<<<END_%2$s_MD>>>\n";
+
+    private static final String TITLE = """
+환자가 약들을 처방받은 이유를 한 줄로 요약하는 제목을 %2$s 언어로 생성해주세요.
+그리고 각 의약품의 용도를 %2$s 언어로 10단어 이내로 요약한 줄을 의약품 목록 순서대로 한 줄에 하나씩 생성해주세요.
+
+출력 예시:
+<<<BEGIN_TITLE>>>
+...(처방전을 요약하는 제목)
+<<<END_TITLE>>>
+<<<BEGIN_SUMMARY>>>
+...(의약품 이름1의 용도 요약)
+...(의약품 이름2의 용도 요약)
+<<<END_SUMMARY>>>
+""";
+}
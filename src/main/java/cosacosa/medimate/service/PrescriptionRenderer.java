@@ -0,0 +1,132 @@
+package cosacosa.medimate.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * PrescriptionDetails(JSON 생성 결과)를 기존 본문 형식으로 만든다.
+ * 단순 문자열: "<의약품명: 이름>" 다음 "[🎯효능]" 등 항목 이름과 탭으로 들여쓴 설명 줄.
+ * 마크다운: "# 💊 의약품명: 이름" 다음 "## 🎯 효능" 등 항목 제목과 설명.
+ * 약품 사이는 빈 줄 하나로 구분하므로 MedicineExplanationService 가 약품 단위로 다시 자를 수 있다.
+ */
+public final class PrescriptionRenderer {
+
+    private PrescriptionRenderer() {
+    }
+
+    public static final PrescriptionDetails.Labels KOREAN_LABELS = new PrescriptionDetails.Labels(
+            "의약품명", "효능", "사용법", "주의사항", "약물 상호작용", "부작용", "보관법");
+    private static final PrescriptionDetails.Labels DEFAULT_LABELS = new PrescriptionDetails.Labels(
+            "Medicine", "Efficacy", "Usage", "Precautions", "Drug interactions", "Side effects", "Storage");
+
+    private static final List<Item> ITEMS = List.of(
+            new Item("🎯", PrescriptionDetails.Labels::efficacy, PrescriptionDetails.Sections::efficacy),
+            new Item("🕒", PrescriptionDetails.Labels::usage, PrescriptionDetails.Sections::usage),
+            new Item("⚠️", PrescriptionDetails.Labels::cautions, PrescriptionDetails.Sections::cautions),
+            new Item("🔄", PrescriptionDetails.Labels::interactions, PrescriptionDetails.Sections::interactions),
+            new Item("🚨", PrescriptionDetails.Labels::sideEffects, PrescriptionDetails.Sections::sideEffects),
+            new Item("📦", PrescriptionDetails.Labels::storage, PrescriptionDetails.Sections::storage));
+
+    private record Item(String emoji,
+                        Function<PrescriptionDetails.Labels, String> label,
+                        Function<PrescriptionDetails.Sections, String> text) {}
+
+    // 약품 하나의 4가지 본문
+    public record Rendered(String content, String koreanContent, String contentMd, String koreanContentMd) {}
+
+    public static Rendered render(PrescriptionDetails.Medicine medicine, PrescriptionDetails.Labels labels) {
+        PrescriptionDetails.Labels translatedLabels = labels == null ? DEFAULT_LABELS : labels;
+        String name = orEmpty(medicine.name());
+        String translatedName = blank(medicine.translatedName()) ? name : medicine.translatedName().strip();
+        return new Rendered(
+                plain(translatedName, medicine.translated(), translatedLabels),
+                plain(name, medicine.korean(), KOREAN_LABELS),
+                markdown(translatedName, medicine.translated(), translatedLabels),
+                markdown(name, medicine.korean(), KOREAN_LABELS)
+        );
+    }
+
+    // 처방전 전체 본문 (약품 순서는 생성 결과 그대로). 제목은 LLM이 만든 제목
+    public static MedicineExplanationService.Contents render(PrescriptionDetails details) {
+        List<Rendered> rendered = details.medicines() == null ? List.of()
+                : details.medicines().stream().map(medicine -> render(medicine, details.labels())).toList();
+        return new MedicineExplanationService.Contents(
+                orEmpty(details.title()),
+                join(rendered, Rendered::content),
+                join(rendered, Rendered::koreanContent),
+                join(rendered, Rendered::contentMd),
+                join(rendered, Rendered::koreanContentMd)
+        );
+    }
+
+    private static String plain(String name, PrescriptionDetails.Sections sections, PrescriptionDetails.Labels labels) {
+        StringBuilder out = new StringBuilder(1024);
+        out.append('<').append(label(labels, PrescriptionDetails.Labels::medicine)).append(": ").append(name).append(">\n");
+        for (int i = 0; i < ITEMS.size(); i++) {
+            Item item = ITEMS.get(i);
+            if (i > 0) {
+                out.append("\n\n");
+            }
+            out.append('[').append(item.emoji()).append(label(labels, item.label())).append("]\n");
+            appendLines(out, text(sections, item), "\t");
+        }
+        return out.toString();
+    }
+
+    private static String markdown(String name, PrescriptionDetails.Sections sections, PrescriptionDetails.Labels labels) {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("# 💊 ").append(label(labels, PrescriptionDetails.Labels::medicine)).append(": ").append(name).append('\n');
+        for (Item item : ITEMS) {
+            out.append("\n## ").append(item.emoji()).append(' ').append(label(labels, item.label())).append('\n');
+            appendLines(out, text(sections, item), "");
+            out.append('\n');
+        }
+        out.setLength(out.length() - 1);
+        return out.toString();
+    }
+
+    // 빈 줄은 버리고 각 줄 앞에 indent 를 붙인다
+    private static void appendLines(StringBuilder out, String text, String indent) {
+        int lineCount = 0;
+        int start = 0;
+        int length = text.length();
+        while (start <= length) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            String line = text.substring(start, end).strip();
+            if (!line.isEmpty()) {
+                if (lineCount++ > 0) {
+                    out.append('\n');
+                }
+                out.append(indent).append(line);
+            }
+            start = end + 1;
+        }
+        if (lineCount == 0) {
+            out.append(indent).append('-');
+        }
+    }
+
+    private static String text(PrescriptionDetails.Sections sections, Item item) {
+        return sections == null ? "" : orEmpty(item.text().apply(sections));
+    }
+
+    private static String label(PrescriptionDetails.Labels labels, Function<PrescriptionDetails.Labels, String> field) {
+        String label = field.apply(labels);
+        return blank(label) ? field.apply(DEFAULT_LABELS) : label.strip();
+    }
+
+    private static String join(List<Rendered> rendered, Function<Rendered, String> field) {
+        return String.join("\n\n", rendered.stream().map(field).toList());
+    }
+
+    private static boolean blank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static String orEmpty(String s) {
+        return s == null ? "" : s.strip();
+    }
+}
@@ -1,33 +1,53 @@
 package cosacosa.medimate.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.PrescriptionGenerationProperties;
+import cosacosa.medimate.config.PrescriptionJobProperties;
+import cosacosa.medimate.domain.MedicineExplanation;
 import cosacosa.medimate.domain.Prescription;
 import cosacosa.medimate.dto.PrescriptionListItemResponse;
 import cosacosa.medimate.dto.PrescriptionRequest;
 import cosacosa.medimate.dto.PrescriptionResponse;
 import cosacosa.medimate.repository.PrescriptionRepository;
-import lombok.Data;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -35,93 +55,417 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PrescriptionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String UNAVAILABLE_MESSAGE = "AI 서비스가 일시적으로 응답하지 않아 처방전을 생성할 수 없습니다. 잠시 후 다시 시도해주세요.";
+
+    // structured 모드 응답 형식 (PrescriptionDetails). strict 모드이므로 모든 필드가 required 이고 추가 필드는 허용하지 않는다
+    private static final Map<String, Object> STRUCTURED_RESPONSE_FORMAT = Map.of(
+            "type", "json_schema",
+            "json_schema", Map.of(
+                    "name", "prescription_details",
+                    "strict", true,
+                    "schema", objectSchema(
+                            "labels", stringsSchema("medicine", "efficacy", "usage", "cautions", "interactions", "sideEffects", "storage"),
+                            "medicines", Map.of(
+                                    "type", "array",
+                                    "items", objectSchema(
+                                            "name", Map.of("type", "string"),
+                                            "translatedName", Map.of("type", "string"),
+                                            "summary", Map.of("type", "string"),
+                                            "korean", stringsSchema("efficacy", "usage", "cautions", "interactions", "sideEffects", "storage"),
+                                            "translated", stringsSchema("efficacy", "usage", "cautions", "interactions", "sideEffects", "storage")
+                                    )
+                            ),
+                            "title", Map.of("type", "string")
+                    )
+            )
+    );
+
     private final PrescriptionRepository prescriptionRepository;
+    private final MedicineExplanationService medicineExplanationService;
     private final FileUploadService fileUploadService;
 
-    private final WebClient openAiWebClient;
-    private final WebClient upstageWebClient;
+    private final LlmGateway llmGateway;
+    private final Scheduler blockingScheduler;
 
     private final ObjectMapper objectMapper;
-
-    @Value("${openai.api.key}")
-    private String openAiApiKey;
-    @Value("${upstage.api.key}")
-    private String upstageApiKey;
+    private final PrescriptionJobProperties jobProperties;
+    private final PrescriptionGenerationProperties generationProperties;
+    private final MeterRegistry meterRegistry;
 
     public Prescription get(Long prescriptionId) {
         return prescriptionRepository.findById(prescriptionId).orElseThrow(() -> new RuntimeException("해당 처방전을 찾을 수 없습니다."));
     }
 
-    public PrescriptionResponse createPrescription(PrescriptionRequest dto) throws IOException {
-        String imageUrl = fileUploadService.uploadFile(dto.getImage());
-        log.info("Uploaded prescription image to S3: {}", imageUrl);
+    // 외부 API 호출 동안 DB 커넥션을 잡고 있지 않도록 트랜잭션 밖에서 실행
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<PrescriptionResponse> createPrescription(PrescriptionRequest dto) throws IOException {
+        MultipartFile image = dto.getImage();
+        if (image == null || image.isEmpty()) {
+            throw new RuntimeException("이미지 파일 없음");
+        }
+        SpooledImage spooled = spool(image);
+        String language = dto.getLanguage();
+
+        // 같은 이미지를 같은 언어로 이미 처리했다면 S3 / Upstage / OpenAI 호출 없이 저장된 결과를 반환
+        Optional<Prescription> existing = findExisting(spooled.sha256(), language);
+        if (existing.isPresent()) {
+            log.info("Reusing prescription {} for image {}", existing.get().getId(), spooled.sha256());
+            deleteQuietly(spooled.path());
+            return CompletableFuture.completedFuture(toResponse(existing.get()));
+        }
+        // 다른 언어로 처리한 적이 있다면 약품명 추출 결과는 재사용
+        Optional<List<String>> knownMedicineNames = findKnownMedicineNames(spooled.sha256());
+
+        // S3 업로드와 약품명 추출을 동시에 시작하고, 생성은 추출이 끝나는 대로 시작한다. 이미지 URL 은 저장할 때 붙인다
+        Mono<String> upload = upload(spooled, image);
+        Mono<Generated> generation = extraction(knownMedicineNames, spooled)
+                .flatMap(medicineNameList -> timed("generate", generateContents(medicineNameList, language))
+                        .map(contents -> new Generated(medicineNameList, contents)));
+
+        return timed("total", Mono.zip(generation, upload)
+                .flatMap(result -> timed("save", Mono.fromCallable(() -> savePrescription(result.getT1().contents(),
+                        result.getT1().medicineNameList(), language, spooled.sha256(), result.getT2())))))
+                .map(this::toResponse)
+                .onErrorMap(e -> {
+                    log.error("Failed to create prescription: {}", e.getMessage());
+                    if (e instanceof CallNotPermittedException) {
+                        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE_MESSAGE, e);
+                    }
+                    return new RuntimeException("처방전 정보 생성에 실패했습니다.", e);
+                })
+                .doFinally(signal -> deleteQuietly(spooled.path()))
+                .toFuture();
+    }
 
-        try {
-            log.info("Step 1: Extracting medicine names using Upstage API...");
-            String base64Image = encodeImageToBase64(dto.getImage());
-            Map<String, Object> extractionRequestBody = createUpstageExtractionRequest(base64Image);
+    private Mono<String> upload(SpooledImage spooled, MultipartFile image) {
+        return timed("upload", Mono.fromCallable(() -> fileUploadService.uploadFile(spooled.path(), spooled.sha256(), image.getOriginalFilename(), image.getContentType()))
+                        .subscribeOn(blockingScheduler))
+                .doOnNext(imageUrl -> log.info("Uploaded prescription image to S3: {}", imageUrl));
+    }
+
+    private Mono<List<String>> extraction(Optional<List<String>> knownMedicineNames, SpooledImage spooled) {
+        return knownMedicineNames.map(Mono::just)
+                .orElseGet(() -> timed("extract", extractMedicineNames(spooled.path())));
+    }
+
+    private record Generated(List<String> medicineNameList, MedicineExplanationService.Contents contents) {}
 
-            String extractionResponse = callUpstageApi(extractionRequestBody);
-            List<String> medicineNameList = parseMedicineNamesFromUpstageResponse(extractionResponse);
+    // 단계별 소요 시간 (prescription.pipeline.stage{stage, outcome}). 단계가 겹치므로 total 과 비교해 임계 경로를 확인한다
+    private <T> Mono<T> timed(String stage, Mono<T> step) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return step
+                    .doOnSuccess(value -> recordStage(stage, "success", start))
+                    .doOnError(e -> recordStage(stage, "error", start));
+        });
+    }
+
+    private <T> Flux<T> timed(String stage, Flux<T> step) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return step
+                    .doOnComplete(() -> recordStage(stage, "success", start))
+                    .doOnError(e -> recordStage(stage, "error", start));
+        });
+    }
+
+    private void recordStage(String stage, String outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer.builder("prescription.pipeline.stage")
+                .tags("stage", stage, "outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Prescription stage {} {} in {}ms", stage, outcome, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    public Optional<Prescription> findExisting(String imageHash, String language) {
+        return prescriptionRepository.findFirstByImageHashAndLanguageOrderByIdDesc(imageHash, language);
+    }
+
+    public Optional<List<String>> findKnownMedicineNames(String imageHash) {
+        return prescriptionRepository.findFirstByImageHashAndMedicineNamesIsNotNullOrderByIdDesc(imageHash)
+                .map(prescription -> List.of(prescription.getMedicineNames().split("\n")));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<List<String>> extractMedicineNames(Path image) {
+        return Mono.defer(() -> {
+            log.info("Step 1: Extracting medicine names using Upstage API...");
+            // 이미지는 요청을 보내면서 파일에서 바로 base64 로 인코딩된다
+            Map<String, Object> extractionRequestBody = createUpstageExtractionRequest(
+                    new StreamingJsonBody.InlineFile(image, "application/octet-stream"));
+            return llmGateway.extract(extractionRequestBody);
+        }).defaultIfEmpty("").map(extractionContent -> {
+            List<String> medicineNameList = parseMedicineNamesFromUpstageResponse(extractionContent);
 
             if (medicineNameList == null || medicineNameList.isEmpty()) {
                 throw new RuntimeException("처방전 이미지에서 약품명을 추출하지 못했습니다.");
             }
+            log.info("Successfully extracted medicine names:\n{}", String.join("\n", medicineNameList));
+            return medicineNameList;
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<Prescription> generatePrescription(List<String> medicineNameList, String language, String imageHash, String imageUrl) {
+        return generateContents(medicineNameList, language)
+                .map(contents -> savePrescription(contents, medicineNameList, language, imageHash, imageUrl));
+    }
+
+    private Mono<MedicineExplanationService.Contents> generateContents(List<String> medicineNameList, String language) {
+        return Mono.fromCallable(() -> medicineExplanationService.findCached(medicineNameList, language))
+                .subscribeOn(blockingScheduler)
+                .flatMap(cached -> {
+                    // 저장소에 없는 약품만 LLM에 요청
+                    List<String> missing = medicineExplanationService.missing(medicineNameList, cached);
+                    if (missing.isEmpty()) {
+                        log.info("Step 2: All {} medicines found in explanation store, skipping OpenAI", medicineNameList.size());
+                        return Mono.just(medicineExplanationService.assemble(medicineNameList, cached));
+                    }
+                    log.info("Step 2: Generating detailed information for {} of {} medicines...", missing.size(), medicineNameList.size());
+                    PrescriptionGenerationProperties.Mode mode = generationProperties.getMode();
+                    return requestDetails(mode, missing, language)
+                            .map(fullContent -> mergeWithCached(mode, medicineNameList, language, cached, missing, fullContent));
+                });
+    }
 
-            String medicineNames = String.join("\n", medicineNameList);
-            log.info("Successfully extracted medicine names:\n{}", medicineNames);
-
-
-            log.info("Step 2: Generating detailed information for extracted names...");
-            String detailsPrompt = createDetailsPrompt(medicineNames, dto.getLanguage());
-            Map<String, Object> textRequestBody = Map.of(
-                    "model", "gpt-4o-mini",
-                    "messages", List.of(Map.of("role", "user", "content", detailsPrompt))
-            );
-            String detailsResponse = callOpenAiApi(textRequestBody);
-            String fullContent = parseContentFromApiResponse(detailsResponse, "OpenAI");
-
-
-            log.info("Step 3: Parsing final response and saving to DB...");
-            List<String> parsedContents = parseAiResponse(fullContent, dto.getLanguage());
-
-            Prescription prescription = new Prescription(
-                    parsedContents.get(4),
-                    parsedContents.get(0),
-                    parsedContents.get(1),
-                    parsedContents.get(2),
-                    parsedContents.get(3)
-            );
-            prescriptionRepository.save(prescription);
-
-            return new PrescriptionResponse(
-                    prescription.getId(),
-                    prescription.getTitle(),
-                    prescription.getContent(),
-                    prescription.getKoreanContent(),
-                    prescription.getContentMd(),
-                    prescription.getKoreanContentMd(),
-                    prescription.getCreatedAt()
-            );
-
-        } catch (Exception e) {
-            log.error("Failed to create prescription: {}", e.getMessage());
-            throw new RuntimeException("처방전 정보 생성에 실패했습니다.", e);
+    // 처방전 생성 과정을 SSE 이벤트로 흘려보낸다: stage → section-start / delta / section-end → done (실패 시 error)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ServerSentEvent<Object>> streamPrescription(PrescriptionRequest dto) throws IOException {
+        MultipartFile image = dto.getImage();
+        if (image == null || image.isEmpty()) {
+            throw new RuntimeException("이미지 파일 없음");
+        }
+        SpooledImage spooled = spool(image);
+        String language = dto.getLanguage();
+
+        Optional<Prescription> existing = findExisting(spooled.sha256(), language);
+        if (existing.isPresent()) {
+            log.info("Reusing prescription {} for image {}", existing.get().getId(), spooled.sha256());
+            deleteQuietly(spooled.path());
+            return Flux.just(event("done", toResponse(existing.get())));
         }
+        Optional<List<String>> knownMedicineNames = findKnownMedicineNames(spooled.sha256());
+
+        // 업로드는 추출과 함께 시작하고 결과(URL)는 저장 단계에서 기다린다
+        Mono<String> upload = upload(spooled, image).cache();
+        Flux<ServerSentEvent<Object>> generation = Flux.concat(
+                Mono.just(stage("extracting")),
+                extraction(knownMedicineNames, spooled)
+                        .flatMapMany(medicineNameList -> Flux.concat(
+                                Mono.just(stage("generating")),
+                                streamGeneration(medicineNameList, language, spooled.sha256(), upload))));
+
+        return timed("total", Flux.concat(Mono.just(stage("uploading")), Flux.merge(upload.then(Mono.empty()), generation)))
+                .onErrorResume(e -> {
+                    log.error("Failed to stream prescription: {}", e.getMessage());
+                    String message = e instanceof CallNotPermittedException ? UNAVAILABLE_MESSAGE : "처방전 정보 생성에 실패했습니다.";
+                    return Mono.just(event("error", Map.of("message", message)));
+                })
+                .doFinally(signal -> deleteQuietly(spooled.path()));
     }
 
+    // 업로드 이미지를 한 번만 읽어 작업용 디렉터리에 복사하면서 해시를 계산한다.
+    // 이후 S3 업로드와 Upstage 요청은 이 파일에서 스트리밍하므로 이미지 전체를 힙에 올리지 않는다
+    private SpooledImage spool(MultipartFile image) throws IOException {
+        Path spoolDir = Paths.get(jobProperties.getSpoolDir());
+        Files.createDirectories(spoolDir);
+        Path path = spoolDir.resolve(UUID.randomUUID().toString());
+        try (InputStream in = image.getInputStream()) {
+            return new SpooledImage(path, ImageHashing.spool(in, path));
+        }
+    }
 
-    public List<PrescriptionListItemResponse> readPrescriptionList() {
-        return prescriptionRepository.findAll()
-                .stream().map(prescription -> new PrescriptionListItemResponse(
-                        prescription.getId(),
-                        prescription.getTitle(),
-                        prescription.getCreatedAt()
-                )).collect(Collectors.toList());
+    private record SpooledImage(Path path, String sha256) {}
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled image {}", path, e);
+        }
     }
 
-    public PrescriptionResponse readPrescription(Long prescriptionId) {
-        Prescription prescription = prescriptionRepository.findById(prescriptionId).orElseThrow(() -> new RuntimeException("해당 id의 prescription을 찾을 수 없습니다."));
+    private Flux<ServerSentEvent<Object>> streamGeneration(List<String> medicineNameList, String language, String imageHash, Mono<String> imageUrl) {
+        return Mono.fromCallable(() -> medicineExplanationService.findCached(medicineNameList, language))
+                .subscribeOn(blockingScheduler)
+                .flatMapMany(cached -> {
+                    List<String> missing = medicineExplanationService.missing(medicineNameList, cached);
+                    if (missing.isEmpty()) {
+                        return imageUrl.map(url -> savePrescription(medicineExplanationService.assemble(medicineNameList, cached),
+                                        medicineNameList, language, imageHash, url))
+                                .map(saved -> event("done", toResponse(saved)));
+                    }
+                    // structured 출력(JSON)은 조각으로 보여줄 수 없으므로 SSE 는 stream-mode(single / parallel)의 센티넬 형식으로 생성한다.
+                    // parallel 모드에서는 섹션별 스트림이 동시에 흐르므로 섹션 이벤트가 섞여서 도착한다
+                    PrescriptionGenerationProperties.Mode mode = generationProperties.getStreamMode();
+                    List<Map<String, Object>> requestBodies = detailsRequestBodies(mode, missing, language);
+                    List<StringBuilder> outputs = requestBodies.stream().map(body -> new StringBuilder()).toList();
+
+                    Flux<ServerSentEvent<Object>> sections = timed("generate", Flux.range(0, requestBodies.size())
+                                    .flatMap(i -> sectionEvents(requestBodies.get(i), outputs.get(i))))
+                            .mapNotNull(sectionEvent -> toSectionEvent(sectionEvent, language));
+                    // 스트림이 끝난 뒤(blockingScheduler) 전체 응답으로 기존과 같은 병합/저장 수행
+                    Mono<ServerSentEvent<Object>> done = Mono.fromCallable(() -> mergeWithCached(mode, medicineNameList, language, cached, missing, String.join("\n", outputs)))
+                            .zipWith(imageUrl, (contents, url) -> savePrescription(contents, medicineNameList, language, imageHash, url))
+                            .map(saved -> event("done", toResponse(saved)));
+                    return sections.concatWith(done);
+                });
+    }
+
+    // 요청 하나의 응답 조각을 섹션 이벤트로 바꾸면서 전체 응답을 output 에 모은다
+    private Flux<SentinelStreamParser.Event> sectionEvents(Map<String, Object> requestBody, StringBuilder output) {
+        SentinelStreamParser parser = new SentinelStreamParser();
+        return llmGateway.chatStream(AiCircuitBreakers.PRESCRIPTION_DETAILS, requestBody)
+                .concatMapIterable(chunk -> {
+                    output.append(chunk);
+                    return parser.feed(chunk);
+                })
+                .concatWith(Flux.defer(() -> Flux.fromIterable(parser.finish())));
+    }
+
+    private Prescription savePrescription(MedicineExplanationService.Contents contents, List<String> medicineNameList,
+                                          String language, String imageHash, String imageUrl) {
+        log.info("Step 3: Saving prescription to DB...");
+        Prescription prescription = new Prescription(
+                contents.title(),
+                contents.content(),
+                contents.koreanContent(),
+                contents.contentMd(),
+                contents.koreanContentMd()
+        );
+        prescription.attachSource(imageHash, imageUrl, language, String.join("\n", medicineNameList));
+        return prescriptionRepository.save(prescription);
+    }
+
+    // 센티넬 섹션 이름을 PrescriptionResponse 필드 이름으로 바꿔 전달 (SUMMARY 등 내부용 섹션은 제외)
+    private ServerSentEvent<Object> toSectionEvent(SentinelStreamParser.Event sectionEvent, String language) {
+        String field = responseField(sectionEvent.section(), language);
+        if (field == null) {
+            return null;
+        }
+        return switch (sectionEvent.type()) {
+            case SECTION_START -> event("section-start", Map.of("section", field));
+            case DELTA -> event("delta", Map.of("section", field, "text", sectionEvent.text()));
+            case SECTION_END -> event("section-end", Map.of("section", field, "content", sectionEvent.text()));
+        };
+    }
+
+    private static String responseField(String section, String language) {
+        String lang = language.toUpperCase();
+        if ("KO".equals(section)) return "koreanContent";
+        if ("KO_MD".equals(section)) return "koreanContentMd";
+        if ("TITLE".equals(section)) return "title";
+        if (lang.equals(section)) return "content";
+        if ((lang + "_MD").equals(section)) return "contentMd";
+        return null;
+    }
+
+    private static ServerSentEvent<Object> stage(String name) {
+        return event("stage", Map.of("stage", name));
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.<Object>builder(data).event(name).build();
+    }
+
+    // 요청별 응답을 섹션 순서대로 이어 붙이므로 single / parallel 모두 같은 형식의 전체 응답이 된다 (structured 는 JSON 하나)
+    private Mono<String> requestDetails(PrescriptionGenerationProperties.Mode mode, List<String> medicineNameList, String language) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.fromIterable(detailsRequestBodies(mode, medicineNameList, language))
+                    .flatMapSequential(requestBody -> llmGateway.chat(AiCircuitBreakers.PRESCRIPTION_DETAILS, requestBody)
+                            .defaultIfEmpty(""))
+                    .collect(Collectors.joining("\n"))
+                    .doOnSuccess(fullContent -> Timer.builder("prescription.generation")
+                            .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private List<Map<String, Object>> detailsRequestBodies(PrescriptionGenerationProperties.Mode mode, List<String> medicineNameList, String language) {
+        String medicineNames = String.join("\n", medicineNameList);
+        return switch (mode) {
+            case SINGLE -> List.of(detailsRequestBody(PrescriptionPrompts.details(medicineNames, language)));
+            case PARALLEL -> Arrays.stream(PrescriptionPrompts.Section.values())
+                    .map(section -> detailsRequestBody(PrescriptionPrompts.section(section, medicineNames, language)))
+                    .toList();
+            case STRUCTURED -> {
+                Map<String, Object> requestBody = new HashMap<>(detailsRequestBody(PrescriptionPrompts.structured(medicineNames, language)));
+                requestBody.put("response_format", STRUCTURED_RESPONSE_FORMAT);
+                yield List.of(requestBody);
+            }
+        };
+    }
+
+    private Map<String, Object> detailsRequestBody(String prompt) {
+        return Map.of(
+                "model", generationProperties.getModel(),
+                "messages", List.of(Map.of("role", "user", "content", prompt))
+        );
+    }
+
+    // 모델은 스키마의 속성 순서대로 생성하므로 순서를 유지한다 (이름, 스키마, 이름, 스키마 ...)
+    private static Map<String, Object> objectSchema(Object... namesAndSchemas) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndSchemas.length; i += 2) {
+            properties.put((String) namesAndSchemas[i], namesAndSchemas[i + 1]);
+        }
+        return Map.of(
+                "type", "object",
+                "properties", properties,
+                "required", List.copyOf(properties.keySet()),
+                "additionalProperties", false
+        );
+    }
+
+    private static Map<String, Object> stringsSchema(String... names) {
+        return objectSchema(Arrays.stream(names)
+                .flatMap(name -> Stream.of(name, Map.of("type", "string")))
+                .toArray());
+    }
+
+    private MedicineExplanationService.Contents mergeWithCached(PrescriptionGenerationProperties.Mode mode,
+                                                              List<String> medicineNameList, String language,
+                                                              Map<String, MedicineExplanation> cached,
+                                                              List<String> missing, String fullContent) {
+        MedicineExplanationService.Contents generated;
+        Map<String, MedicineExplanation> stored;
+        if (mode == PrescriptionGenerationProperties.Mode.STRUCTURED) {
+            PrescriptionDetails details = parseDetails(fullContent);
+            generated = PrescriptionRenderer.render(details);
+            stored = medicineExplanationService.storeStructured(missing, language, details);
+        } else {
+            SentinelStreamParser.Sections sections = SentinelStreamParser.parse(fullContent);
+            generated = parseAiResponse(sections, fullContent, language);
+            stored = medicineExplanationService.storeGenerated(missing, language, generated, parseSummaries(sections));
+        }
+
+        if (cached.isEmpty()) {
+            // 전부 새로 생성한 경우 LLM이 만든 본문과 제목을 그대로 사용
+            return generated;
+        }
+        if (stored.size() == missing.size()) {
+            Map<String, MedicineExplanation> all = new HashMap<>(cached);
+            all.putAll(stored);
+            return medicineExplanationService.assemble(medicineNameList, all);
+        }
+        // 약품 단위로 나누지 못한 경우 저장된 설명 뒤에 생성 결과를 이어 붙인다
+        MedicineExplanationService.Contents fromCache = medicineExplanationService.assemble(medicineNameList, cached);
+        return new MedicineExplanationService.Contents(
+                fromCache.title().isBlank() ? generated.title() : fromCache.title(),
+                fromCache.content() + "\n\n" + generated.content(),
+                fromCache.koreanContent() + "\n\n" + generated.koreanContent(),
+                fromCache.contentMd() + "\n\n" + generated.contentMd(),
+                fromCache.koreanContentMd() + "\n\n" + generated.koreanContentMd()
+        );
+    }
+
+    public PrescriptionResponse toResponse(Prescription prescription) {
         return new PrescriptionResponse(
                 prescription.getId(),
                 prescription.getTitle(),
@@ -133,11 +477,20 @@ public class PrescriptionService {
         );
     }
 
-    private String encodeImageToBase64(MultipartFile file) throws IOException {
-        return Base64.getEncoder().encodeToString(file.getBytes());
+
+    // before 보다 id 가 작은 처방전 중 최신 limit 개 (다음 페이지는 마지막 항목의 id 를 before 로 전달)
+    public List<PrescriptionListItemResponse> readPrescriptionList(Long before, int limit) {
+        return prescriptionRepository.findListPageBefore(
+                before == null ? Long.MAX_VALUE : before,
+                Limit.of(Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+    }
+
+    public PrescriptionResponse readPrescription(Long prescriptionId) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId).orElseThrow(() -> new RuntimeException("해당 id의 prescription을 찾을 수 없습니다."));
+        return toResponse(prescription);
     }
 
-    private Map<String, Object> createUpstageExtractionRequest(String base64Data) {
+    private Map<String, Object> createUpstageExtractionRequest(StreamingJsonBody.InlineFile image) {
         Map<String, Object> schema = Map.of(
                 "type", "object",
                 "properties", Map.of(
@@ -154,7 +507,7 @@ public class PrescriptionService {
                 "messages", List.of(
                         Map.of("role", "user", "content", List.of(
                                 Map.of("type", "image_url", "image_url",
-                                        Map.of("url", "data:application/octet-stream;base64," + base64Data)
+                                        Map.of("url", image)
                                 )
                         ))
                 ),
@@ -168,16 +521,16 @@ public class PrescriptionService {
         );
     }
 
-    private List<String> parseMedicineNamesFromUpstageResponse(String response) {
+    private List<String> parseMedicineNamesFromUpstageResponse(String content) {
+        if (content.isBlank()) {
+            return Collections.emptyList();
+        }
         try {
-            JsonNode rootNode = objectMapper.readTree(response);
-            String content = rootNode.path("choices").get(0).path("message").path("content").asText();
-
             JsonNode contentNode = objectMapper.readTree(content);
             JsonNode medicineNode = contentNode.path("medicine");
 
             if (medicineNode.isArray()) {
-                return objectMapper.convertValue(medicineNode, List.class);
+                return objectMapper.convertValue(medicineNode, new TypeReference<List<String>>() {});
             }
             return Collections.emptyList();
         } catch (JsonProcessingException e) {
@@ -186,168 +539,42 @@ public class PrescriptionService {
         }
     }
 
-    private String createDetailsPrompt(String medicineNames, String language) {
-        // ... (기존과 동일, 변경 없음)
-        return String.format("""
-        당신은 한국의 약학 정보에 능통한 전문 약사입니다. 처방전을 입력한 환자에게 처방받은 의약품들에 대해 쉼고 자세하게 설명해주는 글을 생성해야합니다.
-설명글은 총 4가지 버전이 있어야합니다. 1. 한국어로 작성된 약품 설명글(단순 문자열) 2. %2$s 언어로 작성된 약품 설명글(단순 문자열) 3. 한국어로 작성된 약품 설명글(단순 문자열) 4. %2$s 언어로 작성된 약품 설명글(단순 문자열)
-그리고 추가로 이 처방전을 한 줄로 요약한 제목을 생성해야 합니다. 환자가 약들을 처방받은 이유를 한 줄로 요약하는 제목을 %2$s 언어로 마지막에 생성해주세요.
-반드시 아래 출력 틀 그대로 생성해야 합니다. 
-
-출력 시작 전후에 어떤 텍스트도 쓰지 마세요(설명/경고/요약/인용/코드블록 금지). 
-
-의약품 목록:
-%1$s
-
-절대 준수사항:
-1) 의약품 목록의 품목만, 주어진 순서 그대로 출력합니다(추가/누락/재배열 금지). %2$s 버전의 경우는 의약품 이름을 해당 언어로 번역해서 보여줘야합니다.
-2) 한국어와 %2$s 두 버전의 생성물이 있어야합니다. 각각의 버전에는 다음 항목들이 포함됩니다.
-   효능, 사용법, 주의사항, 약물 상호작용, 부작용, 보관법
-   (약물 상호작용에는 같이 복용하면 위험할 수 있는 의약품들을 알려줘야합니다.)
-   (다음 항목으로 넘어갈 때는 출력 예시에서 보여주는 것과 같이 줄바꿈해야 합니다.)
-   (%2$s 버전의 경우에는 이 항목들도 %2$s 언어로 번역해서 보여줘야합니다.)
-3) 각 설명 줄은 탭 문자(\\t)로만 1단 들여쓰기 합니다(스페이스 들여쓰기 금지).
-4) 마크다운/번호/불릿/링크/추가 코멘트/콘텐츠 확장 금지.
-5) 의약품명은 입력 그대로 사용(번역/괄호 표기 금지).
-6) 두 블록 사이에는 빈 줄 1개만, 그 외 불필요한 빈 줄 금지.
-
-출력 예시:
-<<<BEGIN_KO>>>
-<의약품명: 의약품 이름1>
-[🎯효능] 
-	...
-	
-[🕒사용법]
-	...
-	
-[⚠️주의사항]
-	...
-	
-[🔄약물 상호작용]
-	...
-	
-[🚨부작용]
-	...
-	
-[📦보관법]
-	...
-	
-<의약품명: 의약품 이름2>
-[🎯효능] 
-	...
-	
-[🕒사용법]
-	...
-	
-[⚠️주의사항]
-	...
-	
-[🔄약물 상호작용]
-	...
-	
-[🚨부작용]
-	...
-	
-[📦보관법]
-	...
-<<<END_KO>>>
-
-<<<BEGIN_%2$s>>>
-...(한국어 출력과 같은 형식)
-<<<END_%2$s>>>
-<<<BEGIN_KO_MD>>>
-# 💊 의약품명: 의약품 이름1
-
-## 🎯 효능
-...
-
-## 🕒 사용법
-...
-
-## ⚠️ 주의사항
-...
-
-## 🔄 약물 상호작용
-...
-
-## 🚨 부작용
-...
-
-## 📦 보관법
-...
-<<<END_KO_MD>>>
-<<<BEGIN_%2$s_MD>>>
-...(한국어 MD 출력과 같은 형식)
-<<<END_%2$s_MD>>>
-<<<BEGIN_TITLE>>>
-...(처방전을 요약하는 제목을 %2$s로 생성해주세요)
-<<<END_TITLE>>>
-""", medicineNames, language.toUpperCase());
-    }
-
-    private String parseContentFromApiResponse(String response, String apiType) {
+    private PrescriptionDetails parseDetails(String content) {
         try {
-            return objectMapper.readTree(response).path("choices").get(0).path("message").path("content").asText();
-        } catch (IOException e) {
-            log.error("Failed to parse {} API response", apiType, e);
-            throw new RuntimeException(apiType + " 응답 파싱 실패", e);
+            return objectMapper.readValue(content, PrescriptionDetails.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse structured prescription details", e);
+            throw new RuntimeException("OpenAI 응답 파싱 실패", e);
         }
     }
 
-    private List<String> parseAiResponse(String text, String language) {
-        if (text == null) return List.of("", "");
-
-        String content = "";
-        String koreanContent  = "";
-        String koreanContentMd = "";
-        String contentMd = "";
-        String title = "";
-
-        // DOTALL 모드로 줄바꿈 포함 매칭
-        Pattern pattern = Pattern.compile(
-                String.format("(?s)<<<BEGIN_KO>>>\\s*(.*?)\\s*<<<END_KO>>>.*?<<<BEGIN_%1$s>>>\\s*(.*?)\\s*<<<END_%1$s>>>.*?<<<BEGIN_KO_MD>>>\\s*(.*?)\\s*<<<END_KO_MD>>>.*?<<<BEGIN_%1$s_MD>>>\\s*(.*?)\\s*<<<END_%1$s_MD>>>.*?<<<BEGIN_TITLE>>>\\s*(.*?)\\s*<<<END_TITLE>>>", language.toUpperCase())
-        );
-        Matcher matcher = pattern.matcher(text.trim());
-
-        if (matcher.find()) {
-            koreanContent = matcher.group(1).trim();
-            content  = matcher.group(2).trim();
-            koreanContentMd = matcher.group(3).trim();
-            contentMd = matcher.group(4).trim();
-            title = matcher.group(5).trim();
-        } else {
-            // 센티넬이 없으면 전체를 koreanContent로 반환
-            koreanContent = text.trim();
+    // 센티넬 섹션을 순서와 관계없이 찾는다. 빠진 섹션은 빈 문자열로 두고 기록하며, 센티넬이 하나도 없으면 전체를 koreanContent로 반환
+    private MedicineExplanationService.Contents parseAiResponse(SentinelStreamParser.Sections sections, String text, String language) {
+        String lang = language.toUpperCase();
+        if (sections.isEmpty()) {
+            log.warn("AI response has no section markers; using whole response as Korean content");
+            meterRegistry.counter("prescription.sections.missing", "section", "ALL").increment();
+            return new MedicineExplanationService.Contents("", "", text == null ? "" : text.trim(), "", "");
         }
-
-        return List.of(content, koreanContent, contentMd, koreanContentMd, title);
+        List<String> missing = sections.missing(List.of("KO", lang, "KO_MD", lang + "_MD", "TITLE"));
+        if (!missing.isEmpty()) {
+            log.warn("AI response is missing sections {}", missing);
+            missing.forEach(section -> meterRegistry.counter("prescription.sections.missing", "section", section).increment());
+        }
+        return new MedicineExplanationService.Contents(
+                sections.get("TITLE"),
+                sections.get(lang),
+                sections.get("KO"),
+                sections.get(lang + "_MD"),
+                sections.get("KO_MD")
+        );
     }
 
-    private String callOpenAiApi(Map<String, Object> requestBody) {
-        return openAiWebClient.post()
-                .uri("/chat/completions")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openAiApiKey)
-                .bodyValue(requestBody)
-                .retrieve()
-                .onStatus(HttpStatusCode::isError, clientResponse -> {
-                    log.error("OpenAI API error: {}", clientResponse.statusCode());
-                    return clientResponse.createException();
-                })
-                .bodyToMono(String.class)
-                .block();
-    }
-
-    private String callUpstageApi(Map<String, Object> requestBody) {
-        return upstageWebClient.post()
-                .uri("/v1/information-extraction/chat/completions")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + upstageApiKey)
-                .bodyValue(requestBody)
-                .retrieve()
-                .onStatus(HttpStatusCode::isError, clientResponse -> {
-                    log.error("Upstage API error: {}", clientResponse.statusCode());
-                    return clientResponse.createException();
-                })
-                .bodyToMono(String.class)
-                .block();
+    // <<<BEGIN_SUMMARY>>> 블록의 약품별 용도 요약 (의약품 목록 순서)
+    private static List<String> parseSummaries(SentinelStreamParser.Sections sections) {
+        return sections.get("SUMMARY").lines()
+                .map(String::strip)
+                .filter(line -> !line.isEmpty())
+                .toList();
     }
 }
\ No newline at end of file
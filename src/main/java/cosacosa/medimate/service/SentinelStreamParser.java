@@ -0,0 +1,198 @@
+package cosacosa.medimate.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LLM 출력의 <<<BEGIN_X>>> ... <<<END_X>>> 센티넬 섹션을 스트리밍 청크 단위로 파싱한다.
+ * 청크 경계에 걸친 마커도 처리하며, 섹션 안의 텍스트는 도착하는 즉시 DELTA 이벤트로 내보낸다.
+ * 입력은 한 번만 훑는다: 마커 끝(>>>)은 MAX_MARKER_LENGTH 안에서만 찾으므로 마커가 깨진 출력에서도 입력 길이에 비례한다.
+ * 끝난 섹션은 sections() 로 모아 볼 수 있고, 전체 응답은 parse() 로 이벤트 없이 한 번에 파싱한다.
+ * 인스턴스는 응답 하나에만 사용한다 (thread-safe 하지 않음).
+ */
+public class SentinelStreamParser {
+
+    public enum Type { SECTION_START, DELTA, SECTION_END }
+
+    // SECTION_END 의 text 는 앞뒤 공백을 제거한 섹션 전체 내용
+    public record Event(Type type, String section, String text) {}
+
+    // 섹션 이름 -> 앞뒤 공백을 제거한 내용 (나온 순서). 같은 섹션이 여러 번 나오면 처음 것을 사용
+    public record Sections(Map<String, String> contents) {
+
+        public String get(String section) {
+            return contents.getOrDefault(section, "");
+        }
+
+        public boolean isEmpty() {
+            return contents.isEmpty();
+        }
+
+        // expected 중 끝까지 나오지 않은 섹션 (닫히지 않은 섹션은 응답 끝까지를 내용으로 본다)
+        public List<String> missing(List<String> expected) {
+            return expected.stream().filter(section -> !contents.containsKey(section)).toList();
+        }
+    }
+
+    private static final String OPEN = "<<<";
+    private static final String CLOSE = ">>>";
+    private static final String BEGIN = "BEGIN_";
+    private static final String END = "END_";
+    private static final int MAX_MARKER_LENGTH = 64;
+
+    private final StringBuilder pending = new StringBuilder();
+    private int position; // pending 에서 아직 처리하지 않은 첫 위치 (feed 가 끝날 때 앞부분을 한 번에 비운다)
+    private final StringBuilder sectionContent = new StringBuilder();
+    private final Map<String, String> sections = new LinkedHashMap<>();
+    private String currentSection;
+
+    // 스트리밍이 아닌 전체 응답 파싱. DELTA 등 이벤트를 만들지 않는다
+    public static Sections parse(CharSequence text) {
+        SentinelStreamParser parser = new SentinelStreamParser();
+        if (text != null) {
+            parser.scan(text, null);
+        }
+        parser.complete(null);
+        return parser.sections();
+    }
+
+    public List<Event> feed(CharSequence chunk) {
+        List<Event> events = new ArrayList<>();
+        scan(chunk, events);
+        return events;
+    }
+
+    // 스트림이 끝났을 때 보류 중인 텍스트와 닫히지 않은 섹션을 정리
+    public List<Event> finish() {
+        List<Event> events = new ArrayList<>();
+        complete(events);
+        return events;
+    }
+
+    public Sections sections() {
+        return new Sections(Collections.unmodifiableMap(sections));
+    }
+
+    // events 가 null 이면 이벤트 없이 섹션 내용만 모은다
+    private void scan(CharSequence chunk, List<Event> events) {
+        pending.append(chunk);
+
+        while (true) {
+            int open = pending.indexOf(OPEN, position);
+            if (open < 0) {
+                // 끝에 남은 '<' 는 다음 청크에서 마커가 될 수 있으므로 보류
+                consumeText(pending.length() - trailingOpenCount(), events);
+                break;
+            }
+            consumeText(open, events);
+
+            int nameStart = open + OPEN.length();
+            int close = indexOfClose(nameStart);
+            if (close < 0) {
+                if (pending.length() - open > MAX_MARKER_LENGTH) {
+                    consumeText(nameStart, events); // 마커가 아닌 일반 텍스트
+                    continue;
+                }
+                break;
+            }
+
+            if (startsWith(nameStart, close, BEGIN)) {
+                closeSection(events);
+                currentSection = pending.substring(nameStart + BEGIN.length(), close);
+                if (events != null) {
+                    events.add(new Event(Type.SECTION_START, currentSection, ""));
+                }
+                position = close + CLOSE.length();
+            } else if (startsWith(nameStart, close, END)) {
+                if (currentSection != null && close - nameStart - END.length() == currentSection.length()
+                        && startsWith(nameStart + END.length(), close, currentSection)) {
+                    closeSection(events);
+                }
+                position = close + CLOSE.length();
+            } else {
+                consumeText(nameStart, events);
+            }
+        }
+        compact();
+    }
+
+    private void complete(List<Event> events) {
+        consumeText(pending.length(), events);
+        closeSection(events);
+        compact();
+    }
+
+    private void consumeText(int end, List<Event> events) {
+        if (end <= position) {
+            return;
+        }
+        if (currentSection != null) {
+            sectionContent.append(pending, position, end);
+            if (events != null) {
+                events.add(new Event(Type.DELTA, currentSection, pending.substring(position, end)));
+            }
+        }
+        position = end;
+    }
+
+    private void closeSection(List<Event> events) {
+        if (currentSection == null) {
+            return;
+        }
+        String content = strip(sectionContent);
+        sections.putIfAbsent(currentSection, content);
+        if (events != null) {
+            events.add(new Event(Type.SECTION_END, currentSection, content));
+        }
+        currentSection = null;
+        sectionContent.setLength(0);
+    }
+
+    private void compact() {
+        pending.delete(0, position);
+        position = 0;
+    }
+
+    // from 부터 MAX_MARKER_LENGTH 안에서 ">>>" 위치 (없으면 -1)
+    private int indexOfClose(int from) {
+        int limit = Math.min(pending.length() - CLOSE.length(), from + MAX_MARKER_LENGTH);
+        for (int i = from; i <= limit; i++) {
+            if (pending.charAt(i) == '>' && pending.charAt(i + 1) == '>' && pending.charAt(i + 2) == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // pending[start, end) 가 prefix 로 시작하는지
+    private boolean startsWith(int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (pending.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int trailingOpenCount() {
+        int count = 0;
+        for (int i = pending.length() - 1; i >= position && count < OPEN.length() - 1 && pending.charAt(i) == '<'; i--) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String strip(StringBuilder text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        return text.substring(start, end);
+    }
+}
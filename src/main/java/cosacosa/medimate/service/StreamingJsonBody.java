@@ -0,0 +1,149 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 요청 값 중 InlineFile 을 "data:<mediaType>;base64,<파일 내용>" 문자열로 담은 JSON 본문을 청크 단위로 만든다.
+ * 나머지 JSON 은 한 번에 직렬화하고 파일 부분만 읽는 대로 인코딩해 보내므로, 파일 크기와 관계없이 요청당 힙 사용량이 일정하다.
+ */
+final class StreamingJsonBody {
+
+    // 3의 배수여야 청크마다 따로 인코딩한 결과를 이어 붙여도 한 번에 인코딩한 것과 같다
+    private static final int CHUNK_BYTES = 48 * 1024;
+
+    private final List<Object> segments; // byte[] (JSON 조각) 또는 InlineFile
+    private final long contentLength;
+
+    private StreamingJsonBody(List<Object> segments, long contentLength) {
+        this.segments = segments;
+        this.contentLength = contentLength;
+    }
+
+    // 요청 Map 에 값으로 넣는 파일 참조. 직렬화하면 인스턴스마다 다른 자리 표시 문자열이 된다
+    static final class InlineFile {
+        private final Path path;
+        private final String mediaType;
+        private final String placeholder = "inline-file-" + UUID.randomUUID();
+
+        InlineFile(Path path, String mediaType) {
+            this.path = path;
+            this.mediaType = mediaType;
+        }
+
+        @JsonValue
+        String placeholder() {
+            return placeholder;
+        }
+
+        private byte[] prefix() {
+            return ("data:" + mediaType + ";base64,").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    static StreamingJsonBody of(ObjectMapper objectMapper, Object body) throws IOException {
+        String json = objectMapper.writeValueAsString(body);
+        List<InlineFile> files = new ArrayList<>(inlineFiles(body));
+        files.removeIf(file -> !json.contains(file.placeholder));
+        files.sort(Comparator.comparingInt(file -> json.indexOf(file.placeholder)));
+
+        List<Object> segments = new ArrayList<>();
+        int start = 0;
+        for (InlineFile file : files) {
+            int at = json.indexOf(file.placeholder, start);
+            segments.add(json.substring(start, at).getBytes(StandardCharsets.UTF_8));
+            segments.add(file);
+            start = at + file.placeholder.length();
+        }
+        segments.add(json.substring(start).getBytes(StandardCharsets.UTF_8));
+
+        long contentLength = 0;
+        for (Object segment : segments) {
+            if (segment instanceof InlineFile file) {
+                contentLength += file.prefix().length + 4 * ((Files.size(file.path) + 2) / 3);
+            } else {
+                contentLength += ((byte[]) segment).length;
+            }
+        }
+        return new StreamingJsonBody(segments, contentLength);
+    }
+
+    long contentLength() {
+        return contentLength;
+    }
+
+    // 파일은 구독할 때마다 처음부터 다시 읽으므로 재시도해도 같은 본문을 보낸다
+    Flux<DataBuffer> publisher(Scheduler scheduler) {
+        return Flux.fromIterable(segments).concatMap(segment -> segment instanceof InlineFile file
+                ? Flux.concat(Mono.fromSupplier(() -> wrap(file.prefix())), encode(file.path).subscribeOn(scheduler))
+                : Mono.fromSupplier(() -> wrap((byte[]) segment)));
+    }
+
+    private static Flux<DataBuffer> encode(Path path) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return Flux.using(
+                () -> Files.newInputStream(path),
+                in -> Flux.generate(sink -> {
+                    try {
+                        byte[] chunk = in.readNBytes(CHUNK_BYTES);
+                        if (chunk.length == 0) {
+                            sink.complete();
+                        } else {
+                            sink.next(wrap(encoder.encode(chunk)));
+                        }
+                    } catch (IOException e) {
+                        sink.error(new UncheckedIOException(e));
+                    }
+                }),
+                StreamingJsonBody::closeQuietly);
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // 읽기 전용 스트림
+        }
+    }
+
+    private static Set<InlineFile> inlineFiles(Object value) {
+        Set<InlineFile> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(value, found);
+        return found;
+    }
+
+    private static void collect(Object value, Set<InlineFile> found) {
+        if (value instanceof InlineFile file) {
+            found.add(file);
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(child -> collect(child, found));
+        } else if (value instanceof Iterable<?> iterable) {
+            iterable.forEach(child -> collect(child, found));
+        }
+    }
+}
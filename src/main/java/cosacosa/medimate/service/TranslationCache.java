@@ -0,0 +1,131 @@
+package cosacosa.medimate.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cosacosa.medimate.config.TranslationCacheProperties;
+import cosacosa.medimate.domain.TranslationCacheEntry;
+import cosacosa.medimate.repository.TranslationCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * 채팅 번역 결과 캐시.
+ * 1차: 프로세스 내 Caffeine 캐시 (크기 + TTL 제한), 2차(선택): MySQL translation_cache 테이블.
+ * "네", "감사합니다" 처럼 반복되는 짧은 문장은 OpenAI 호출 없이 바로 응답한다.
+ */
+@Service
+@Slf4j
+public class TranslationCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TranslationCacheRepository repository;
+    private final TranslationCacheProperties props;
+    private final Scheduler blockingScheduler;
+    private final Cache<Key, String> memory;
+    private final Counter persistentHits;
+    private final Counter persistentMisses;
+
+    public TranslationCache(TranslationCacheRepository repository,
+                            TranslationCacheProperties props,
+                            Scheduler blockingScheduler,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.props = props;
+        this.blockingScheduler = blockingScheduler;
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(props.getMaximumSize())
+                .expireAfterWrite(props.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "translation", "tier", "memory");
+        this.persistentHits = meterRegistry.counter("translation.cache.persistent", "result", "hit");
+        this.persistentMisses = meterRegistry.counter("translation.cache.persistent", "result", "miss");
+    }
+
+    public record Key(String text, String sourceLanguage, String targetLanguage, String model) {
+        public static Key of(String text, String sourceLanguage, String targetLanguage, String model) {
+            String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC).strip()).replaceAll(" ");
+            return new Key(normalized, sourceLanguage, targetLanguage, model);
+        }
+    }
+
+    public boolean isCacheable(Key key) {
+        return props.isEnabled() && !key.text().isEmpty() && key.text().length() <= props.getMaxTextLength();
+    }
+
+    // 캐시에 없으면 empty
+    public Mono<String> get(Key key) {
+        if (!isCacheable(key)) {
+            return Mono.empty();
+        }
+        String cached = memory.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (!props.isPersistentEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> repository.findByKeyHash(hash(key))
+                        .map(TranslationCacheEntry::getTranslatedText)
+                        .orElse(null))
+                .subscribeOn(blockingScheduler)
+                .doOnNext(translated -> {
+                    persistentHits.increment();
+                    memory.put(key, translated);
+                })
+                .doOnSuccess(translated -> {
+                    if (translated == null) persistentMisses.increment();
+                });
+    }
+
+    public void put(Key key, String translatedText) {
+        if (!isCacheable(key) || translatedText == null || translatedText.isBlank()) {
+            return;
+        }
+        memory.put(key, translatedText);
+        if (props.isPersistentEnabled()) {
+            blockingScheduler.schedule(() -> savePersistent(key, translatedText));
+        }
+    }
+
+    private void savePersistent(Key key, String translatedText) {
+        try {
+            repository.save(new TranslationCacheEntry(
+                    hash(key),
+                    key.text(),
+                    key.sourceLanguage(),
+                    key.targetLanguage(),
+                    key.model(),
+                    translatedText
+            ));
+        } catch (DataIntegrityViolationException e) {
+            // 다른 요청이 같은 키를 먼저 저장한 경우 - 무시
+        } catch (Exception e) {
+            log.warn("Failed to store translation cache entry: {}", e.getMessage());
+        }
+    }
+
+    private static String hash(Key key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String raw = key.model() + '\u0000' + key.sourceLanguage() + '\u0000' + key.targetLanguage() + '\u0000' + key.text();
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package cosacosa.medimate.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * relay 모드로 띄운 두 인스턴스가 같은 외부 브로커를 통해 메세지를 주고받는지 확인한다.
+ * 노드 A에 구독한 클라이언트가 노드 B에서 보낸 메세지를 받아야 한다.
+ */
+class StompBrokerRelayIntegrationTest {
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startBrokerAndNodes() throws Exception {
+        int brokerPort = freePort();
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + brokerPort + "?protocols=STOMP");
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+
+        nodeA = startNode(brokerPort);
+        nodeB = startNode(brokerPort);
+    }
+
+    @AfterAll
+    static void stopAll() throws Exception {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+        if (broker != null) broker.stop();
+    }
+
+    @Test
+    void messageSentOnOneNodeIsDeliveredToSubscriberOnAnotherNode() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        ThreadPoolTaskScheduler receiptScheduler = new ThreadPoolTaskScheduler();
+        receiptScheduler.initialize();
+        client.setTaskScheduler(receiptScheduler); // RECEIPT 프레임 대기에 필요
+
+        StompSession session = client.connectAsync("ws://localhost:" + port(nodeA) + "/ws", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        session.setAutoReceipt(true);
+        CompletableFuture<Void> subscribed = new CompletableFuture<>();
+        session.subscribe("/sub/chat/rooms/1", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        }).addReceiptTask(() -> subscribed.complete(null));
+        subscribed.get(10, TimeUnit.SECONDS);
+
+        nodeB.getBean(SimpMessagingTemplate.class).convertAndSend("/sub/chat/rooms/1", "hello from node B");
+
+        assertEquals("hello from node B", received.poll(10, TimeUnit.SECONDS));
+        session.disconnect();
+        client.stop();
+        receiptScheduler.shutdown();
+    }
+
+    private static ConfigurableApplicationContext startNode(int brokerPort) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RelayNode.class)
+                .run("--server.port=0",
+                        "--stomp.broker.mode=relay",
+                        "--stomp.broker.relay-host=localhost",
+                        "--stomp.broker.relay-port=" + brokerPort);
+        // 서버용 공유(system) 연결이 브로커에 붙을 때까지 대기
+        StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!relay.isBrokerAvailable() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(relay.isBrokerAvailable(), "relay did not connect to the broker");
+        return context;
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // DB / 외부 API 없이 STOMP 설정만 올린 최소 노드
+    @Configuration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            WebSocketMessagingAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @EnableConfigurationProperties({StompBrokerProperties.class, StompChannelProperties.class})
+    @Import(WebSocketConfig.class)
+    static class RelayNode {
+    }
+}
@@ -0,0 +1,84 @@
+package cosacosa.medimate.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * [41비트 밀리초][4비트 노드][8비트 순번] id 가 같은 밀리초, 순번 소진, 시계 역행에서도 계속 증가하는지 확인한다.
+ */
+class TimeOrderedIdsTest {
+
+    private static final long EPOCH_MILLIS = 1735689600000L;
+    private static final long NOW = EPOCH_MILLIS + 86_400_000L;
+    private static final long NODE = 5;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final TimeOrderedIds ids = new TimeOrderedIds(clock::get, NODE);
+
+    @Test
+    void idsIncreaseWithinSameMillisecond() {
+        long previous = ids.nextId();
+        for (int i = 1; i < 256; i++) {
+            long id = ids.nextId();
+            assertTrue(id > previous);
+            assertEquals(NOW - EPOCH_MILLIS, millis(id));
+            assertEquals(NODE, node(id));
+            assertEquals(i, sequence(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void sequenceRolloverBorrowsNextMillisecond() {
+        long last = 0;
+        for (int i = 0; i < 256; i++) {
+            last = ids.nextId();
+        }
+        assertEquals(255, sequence(last));
+
+        // 같은 밀리초에 257번째 id 는 다음 밀리초의 0번이 된다
+        long rolled = ids.nextId();
+        assertTrue(rolled > last);
+        assertEquals(NOW - EPOCH_MILLIS + 1, millis(rolled));
+        assertEquals(0, sequence(rolled));
+
+        // 실제 시계가 빌린 밀리초에 도달해도 이미 발급한 순번 뒤를 이어간다
+        clock.set(NOW + 1);
+        long next = ids.nextId();
+        assertTrue(next > rolled);
+        assertEquals(1, sequence(next));
+
+        clock.set(NOW + 2);
+        long later = ids.nextId();
+        assertTrue(later > next);
+        assertEquals(0, sequence(later));
+    }
+
+    @Test
+    void clockMovingBackwardsDoesNotReuseIds() {
+        long before = ids.nextId();
+        clock.set(NOW - 5_000);
+        long afterStep = ids.nextId();
+        assertTrue(afterStep > before);
+        assertEquals(NOW - EPOCH_MILLIS, millis(afterStep));
+
+        clock.set(NOW + 1);
+        assertTrue(ids.nextId() > afterStep);
+    }
+
+    private static long millis(long id) {
+        return id >>> 12;
+    }
+
+    private static long node(long id) {
+        return (id >>> 8) & 0xF;
+    }
+
+    private static long sequence(long id) {
+        return id & 0xFF;
+    }
+}
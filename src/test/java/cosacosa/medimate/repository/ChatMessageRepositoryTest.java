@@ -0,0 +1,70 @@
+package cosacosa.medimate.repository;
+
+import cosacosa.medimate.config.PrecheckCacheProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.domain.ChatRoom;
+import cosacosa.medimate.dto.ChatMessageResponse;
+import cosacosa.medimate.dto.ChatMessageState;
+import cosacosa.medimate.service.PrecheckCacheEvictionListener;
+import cosacosa.medimate.service.PrecheckResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 채팅 메세지 keyset 조회가 DTO 생성자 표현식으로 저장된 메세지(FINAL, streamId 없음)를 id 역순으로 돌려주는지 확인한다 (H2).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:chat;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Precheck 엔티티 리스너가 Spring 빈이라 JPA 슬라이스에도 필요하다
+@Import({PrecheckCacheEvictionListener.class, PrecheckResponseCache.class, PrecheckCacheProperties.class, SimpleMeterRegistry.class})
+class ChatMessageRepositoryTest {
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void findPageByRoomBeforeReturnsFinalResponsesNewestFirst() {
+        ChatRoom room = new ChatRoom();
+        em.persist(room);
+        ChatMessage first = new ChatMessage("user", "hello", "안녕하세요", room.getId());
+        ChatMessage second = new ChatMessage("doctor", "How can I help?", "어떻게 도와드릴까요?", room.getId());
+        second.markTranslationPending("korean");
+        chatMessageRepository.saveAllAndFlush(List.of(first, second));
+
+        List<ChatMessageResponse> page = chatMessageRepository.findPageByRoomBefore(room.getId(), Long.MAX_VALUE, Limit.of(10));
+
+        assertEquals(List.of(second.getId(), first.getId()), page.stream().map(ChatMessageResponse::getId).toList());
+        ChatMessageResponse latest = page.get(0);
+        assertEquals("doctor", latest.getSender());
+        assertEquals(room.getId(), latest.getRoomId());
+        assertEquals(ChatMessageState.FINAL, latest.getState());
+        assertNull(latest.getStreamId());
+        assertTrue(latest.isTranslationPending());
+        assertFalse(page.get(1).isTranslationPending());
+        assertEquals(List.of(first.getId()),
+                chatMessageRepository.findPageByRoomBefore(room.getId(), second.getId(), Limit.of(10)).stream().map(ChatMessageResponse::getId).toList());
+    }
+}
@@ -0,0 +1,97 @@
+package cosacosa.medimate.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 제공자 쪽 실패(5xx, 시간 초과)가 이어지면 회로가 열려 호출 없이 바로 실패하고,
+ * 요청 자체의 문제(4xx)는 회로를 열지 않는지 확인한다. 설정은 application.yml 의 default 와 같고 창 크기만 줄였다.
+ */
+class AiCircuitBreakersTest {
+
+    private static final String NAME = AiCircuitBreakers.CHAT_TRANSLATION;
+
+    private final AiCircuitBreakers aiCircuitBreakers = new AiCircuitBreakers(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                    .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .recordException(new AiFailurePredicate())
+                    .build()),
+            TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(200)).build()));
+
+    @Test
+    void serverErrorsOpenCircuitAndLaterCallsFailFast() {
+        for (int i = 0; i < 4; i++) {
+            Mono<String> call = aiCircuitBreakers.protect(NAME, Mono.error(status(503)));
+            assertThrows(WebClientResponseException.class, () -> call.block(Duration.ofSeconds(1)));
+        }
+        assertTrue(aiCircuitBreakers.isOpen(NAME));
+
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> call = aiCircuitBreakers.protect(NAME, Mono.fromCallable(() -> {
+            subscriptions.incrementAndGet();
+            return "번역";
+        }));
+        assertThrows(CallNotPermittedException.class, () -> call.block(Duration.ofSeconds(1)));
+        assertEquals(0, subscriptions.get());
+        // 다른 호출 지점은 영향을 받지 않는다
+        assertFalse(aiCircuitBreakers.isOpen(AiCircuitBreakers.PRECHECK));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        for (int i = 0; i < 10; i++) {
+            Mono<String> call = aiCircuitBreakers.protect(NAME, Mono.error(status(400)));
+            assertThrows(WebClientResponseException.class, () -> call.block(Duration.ofSeconds(1)));
+        }
+        assertFalse(aiCircuitBreakers.isOpen(NAME));
+        assertEquals("ok", aiCircuitBreakers.protect(NAME, Mono.just("ok")).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void timeoutsCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            Mono<String> call = aiCircuitBreakers.protect(NAME, Mono.<String>never());
+            RuntimeException e = assertThrows(RuntimeException.class, () -> call.block(Duration.ofSeconds(2)));
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(aiCircuitBreakers.isOpen(NAME));
+    }
+
+    @Test
+    void streamingCallsOnlyTimeOutBetweenChunks() {
+        // 전체 시간(300ms)은 제한 시간을 넘지만 조각 사이 간격(100ms)은 넘지 않는다
+        Flux<Long> slowStream = Flux.interval(Duration.ofMillis(100)).take(3);
+        assertEquals(List.of(0L, 1L, 2L), aiCircuitBreakers.protect(NAME, slowStream).collectList().block(Duration.ofSeconds(2)));
+
+        Flux<Long> stalled = Flux.concat(Flux.just(0L), Flux.<Long>never());
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> aiCircuitBreakers.protect(NAME, stalled).collectList().block(Duration.ofSeconds(2)));
+        assertTrue(e.getCause() instanceof TimeoutException);
+    }
+
+    private static WebClientResponseException status(int status) {
+        return WebClientResponseException.create(status, "error", new HttpHeaders(), new byte[0], null);
+    }
+}
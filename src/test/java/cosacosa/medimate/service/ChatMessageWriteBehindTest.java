@@ -0,0 +1,95 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatWriteBehindProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 배치 저장이 실패했을 때의 재시도 규칙.
+ * 제약 조건 위반이면 하나씩 다시 저장해 정상 메세지는 바로 저장하고 문제 메세지만 max-attempts 까지 재시도한 뒤 버리며,
+ * 일시적인 오류면 배치 전체를 다음 주기에 다시 저장한다.
+ */
+class ChatMessageWriteBehindTest {
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private ChatMessageWriteBehind writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        writeBehind = new ChatMessageWriteBehind(chatMessageRepository, transactionTemplate, new ChatWriteBehindProperties());
+    }
+
+    @Test
+    void constraintViolationSavesValidMessagesAndDropsInvalidOneAfterMaxAttempts() {
+        ChatMessage valid = new ChatMessage("user", "hello", "안녕하세요", 1L);
+        ChatMessage invalid = new ChatMessage("user", "orphan", "고아", 404L);
+        ChatMessage alsoValid = new ChatMessage("doctor", "ok", "네", 1L);
+        when(chatMessageRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("fk_chat_room"));
+        when(chatMessageRepository.save(invalid)).thenThrow(new DataIntegrityViolationException("fk_chat_room"));
+
+        writeBehind.enqueue(valid);
+        writeBehind.enqueue(invalid);
+        writeBehind.enqueue(alsoValid);
+
+        writeBehind.flush();
+        verify(chatMessageRepository).save(valid);
+        verify(chatMessageRepository).save(alsoValid);
+        assertEquals(List.of(invalid), writeBehind.pending(404L));
+        assertTrue(writeBehind.pending(1L).isEmpty());
+
+        writeBehind.flush();
+        writeBehind.flush();
+        verify(chatMessageRepository, times(3)).save(invalid);
+        assertTrue(writeBehind.pending(404L).isEmpty());
+
+        // 버린 메세지는 더 이상 시도하지 않는다
+        writeBehind.flush();
+        verify(chatMessageRepository, times(3)).save(invalid);
+    }
+
+    @Test
+    void transientFailureRetriesWholeBatchOnNextFlush() {
+        ChatMessage first = new ChatMessage("user", "hello", "안녕하세요", 1L);
+        ChatMessage second = new ChatMessage("doctor", "ok", "네", 1L);
+        when(chatMessageRepository.saveAll(anyList()))
+                .thenThrow(new TransientDataAccessResourceException("connection refused"))
+                .thenReturn(List.of());
+
+        writeBehind.enqueue(first);
+        writeBehind.enqueue(second);
+
+        writeBehind.flush();
+        assertEquals(List.of(first, second), writeBehind.pending(1L));
+
+        writeBehind.flush();
+        verify(chatMessageRepository, times(2)).saveAll(anyList());
+        verify(chatMessageRepository, never()).save(any());
+        assertTrue(writeBehind.pending(1L).isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatDispatcherProperties;
+import cosacosa.medimate.config.ChatWriteBehindProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.repository.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 방 안의 결과는 작업이 끝난 순서와 관계없이 도착 순서대로 처리되고,
+ * 종료 시에는 진행 중인 작업을 기다려 결과를 write-behind 에 넘긴 뒤 마지막 flush 가 일어나는지 확인한다.
+ */
+class ChatRoomDispatcherTest {
+
+    @Test
+    void resultsInSameRoomAreHandledInArrivalOrder() throws Exception {
+        ChatRoomDispatcher dispatcher = new ChatRoomDispatcher(new ChatDispatcherProperties());
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+        Consumer<String> onResult = value -> {
+            handled.add(value);
+            done.countDown();
+        };
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Sinks.One<String> third = Sinks.one();
+        try {
+            dispatcher.dispatch(1L, first.asMono(), onResult);
+            dispatcher.dispatch(1L, second.asMono(), onResult);
+            dispatcher.dispatch(1L, third.asMono(), onResult);
+            // 앞 메세지의 번역이 늦어도 다른 방은 기다리지 않는다
+            dispatcher.dispatch(2L, Mono.just("room2"), onResult);
+
+            third.tryEmitValue("third");
+            second.tryEmitValue("second");
+            Thread.sleep(100);
+            assertEquals(List.of("room2"), handled);
+
+            first.tryEmitValue("first");
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("room2", "first", "second", "third"), handled);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void failedTaskDoesNotBlockLaterResults() throws Exception {
+        ChatRoomDispatcher dispatcher = new ChatRoomDispatcher(new ChatDispatcherProperties());
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            dispatcher.dispatch(1L, Mono.<String>error(new IllegalStateException("translation failed")), handled::add);
+            dispatcher.dispatch(1L, Mono.just("next"), value -> {
+                handled.add(value);
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("next"), handled);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shutdownWaitsForRunningTasksBeforeWriteBehindFlushes() {
+        ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(ChatMessageRepository.class, () -> chatMessageRepository);
+        context.registerBean(TransactionTemplate.class, () -> transactionTemplate);
+        context.registerBean(ChatWriteBehindProperties.class);
+        context.registerBean(ChatDispatcherProperties.class);
+        // 등록 역순으로 종료되므로 dispatcher 를 먼저 등록해도 write-behind 보다 먼저 종료되어야 한다
+        context.registerBean(ChatRoomDispatcher.class);
+        context.registerBean(ChatMessageWriteBehind.class);
+        context.refresh();
+
+        ChatRoomDispatcher dispatcher = context.getBean(ChatRoomDispatcher.class);
+        ChatMessageWriteBehind writeBehind = context.getBean(ChatMessageWriteBehind.class);
+        ChatMessage message = new ChatMessage("user", "hello", "안녕하세요", 1L);
+        // 종료를 시작할 때 아직 번역 중인 메세지
+        dispatcher.dispatch(1L, Mono.delay(Duration.ofMillis(300)).thenReturn(message), writeBehind::enqueue);
+
+        context.close();
+
+        verify(chatMessageRepository).saveAll(argThat(batch -> batch.iterator().next() == message));
+        assertTrue(writeBehind.pending(1L).isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.ChatTranslationBackfillProperties;
+import cosacosa.medimate.config.ChatWriteBehindProperties;
+import cosacosa.medimate.domain.ChatMessage;
+import cosacosa.medimate.repository.ChatMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 번역 보충이 응답 없는 번역 요청을 기다리는 동안에도 @Scheduled 스레드가 비어 있어 write-behind flush 가 계속 도는지 확인한다.
+ * 스케줄링 스레드를 1개로 두어 예전 기본값(단일 스레드)에서도 서로 막지 않아야 한다.
+ */
+class ChatTranslationBackfillTest {
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final ChatService chatService = mock(ChatService.class);
+    private final AiCircuitBreakers aiCircuitBreakers = mock(AiCircuitBreakers.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final Sinks.One<String> translation = Sinks.one();
+
+    private ThreadPoolTaskScheduler taskScheduler;
+    private Scheduler blockingScheduler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.initialize();
+        blockingScheduler = Schedulers.newBoundedElastic(4, 100, "test-blocking");
+    }
+
+    @AfterEach
+    void tearDown() {
+        translation.tryEmitEmpty();
+        taskScheduler.shutdown();
+        blockingScheduler.dispose();
+    }
+
+    @Test
+    void flushKeepsRunningWhileBackfillWaitsForTranslation() {
+        ChatMessage pendingMessage = new ChatMessage("user", "hello", "hello", null);
+        pendingMessage.markTranslationPending("korean");
+        when(chatMessageRepository.findByTranslationPendingTrueOrderByIdAsc(any())).thenReturn(List.of(pendingMessage));
+        // 번역 제공자가 응답하지 않는 상황
+        when(chatService.translate(any(), any())).thenReturn(translation.asMono());
+
+        ChatTranslationBackfill backfill = new ChatTranslationBackfill(chatMessageRepository, chatService, aiCircuitBreakers,
+                new ChatTranslationBackfillProperties(), blockingScheduler);
+        ChatMessageWriteBehind writeBehind = new ChatMessageWriteBehind(chatMessageRepository, transactionTemplate,
+                new ChatWriteBehindProperties());
+
+        taskScheduler.scheduleWithFixedDelay(backfill::backfill, Duration.ofMillis(10));
+        taskScheduler.scheduleWithFixedDelay(writeBehind::flush, Duration.ofMillis(10));
+
+        verify(chatService, timeout(2000)).translate("hello", "korean");
+
+        writeBehind.enqueue(new ChatMessage("user", "hi", "안녕", null));
+        verify(chatMessageRepository, timeout(2000)).saveAll(anyList());
+        // 앞선 배치가 끝나지 않았으므로 번역 요청이 겹쳐 나가지 않는다
+        verify(chatService, timeout(100).times(1)).translate(any(), any());
+    }
+}
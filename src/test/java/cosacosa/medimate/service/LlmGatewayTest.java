@@ -0,0 +1,114 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 서킷 브레이커와 타임 리미터가 호출 한도 대기열 안쪽의 HTTP 요청 한 번에만 적용되는지 확인한다.
+ * 대기열에서 제한 시간보다 오래 기다려도 시간 초과나 제공자 실패로 세지 않아야 한다.
+ */
+class LlmGatewayTest {
+
+    private static final String CALL = AiCircuitBreakers.CHAT_TRANSLATION;
+    private static final String RESPONSE = """
+            {"choices":[{"message":{"role":"assistant","content":"ok"}}]}""";
+    private static final Map<String, Object> REQUEST = Map.of(
+            "model", "gpt-4o",
+            "messages", List.of(Map.of("role", "user", "content", "안녕하세요")));
+
+    private final LlmRateLimitProperties rateLimitProperties = new LlmRateLimitProperties();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(2)
+            .recordException(new AiFailurePredicate())
+            .build());
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    @Test
+    void queueWaitLongerThanTimeoutIsNotCountedAsFailure() {
+        rateLimitProperties.getDefaultLimit().setMaxConcurrency(1);
+        // 요청 하나는 200ms, 제한 시간은 300ms. 네 번째 요청은 대기열에서 약 600ms 를 기다린다
+        LlmGateway llmGateway = gateway(Duration.ofMillis(300), request -> Mono.delay(Duration.ofMillis(200)).thenReturn(ok()));
+
+        List<String> results = Flux.range(0, 4)
+                .flatMap(i -> llmGateway.chat(CALL, REQUEST))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("ok", "ok", "ok", "ok"), results);
+        CircuitBreaker.Metrics metrics = circuitBreakerRegistry.circuitBreaker(CALL).getMetrics();
+        assertEquals(4, metrics.getNumberOfSuccessfulCalls());
+        assertEquals(0, metrics.getNumberOfFailedCalls());
+    }
+
+    @Test
+    void hungAttemptTimesOutAndIsRecorded() {
+        LlmGateway llmGateway = gateway(Duration.ofMillis(200), request -> Mono.never());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> llmGateway.chat(CALL, REQUEST).block(Duration.ofSeconds(2)));
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertEquals(1, circuitBreakerRegistry.circuitBreaker(CALL).getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void openCircuitFailsBeforeQueueing() {
+        LlmGateway llmGateway = gateway(Duration.ofSeconds(1), request -> Mono.just(ok()));
+        circuitBreakerRegistry.circuitBreaker(CALL).transitionToOpenState();
+
+        assertThrows(CallNotPermittedException.class, () -> llmGateway.chat(CALL, REQUEST).block(Duration.ofSeconds(1)));
+        assertEquals(0, exchanges.get());
+        // 다른 호출 지점은 그대로 호출된다
+        assertEquals("ok", llmGateway.chat(AiCircuitBreakers.PRECHECK, REQUEST).block(Duration.ofSeconds(1)));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakerRegistry.circuitBreaker(AiCircuitBreakers.PRECHECK).getState());
+    }
+
+    private LlmGateway gateway(Duration attemptTimeout, ExchangeFunction upstream) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    exchanges.incrementAndGet();
+                    return upstream.exchange(request);
+                })
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        AiCircuitBreakers aiCircuitBreakers = new AiCircuitBreakers(circuitBreakerRegistry,
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(attemptTimeout).build()));
+        return new LlmGateway(webClient, webClient, Schedulers.boundedElastic(), objectMapper,
+                new LlmRateLimiter(rateLimitProperties, objectMapper, meterRegistry), aiCircuitBreakers, meterRegistry);
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(RESPONSE)
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cosacosa.medimate.config.LlmRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retry-After 해석, 429 를 받은 뒤 같은 모델의 요청 대기, 재시도 대상 구분, 동시 요청 수 제한과 우선순위 순서,
+ * 호출 기한 안에서만 기다리는지.
+ */
+class LlmRateLimiterTest {
+
+    private static final Duration DEADLINE = Duration.ofMinutes(1);
+
+    private final LlmRateLimitProperties props = new LlmRateLimitProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmRateLimiter limiter = new LlmRateLimiter(props, new ObjectMapper(), meterRegistry);
+
+    @Test
+    void retryAfterAcceptsSecondsAndHttpDate() {
+        assertEquals(Optional.of(Duration.ofSeconds(7)), LlmRateLimiter.retryAfter(headers(" 7 ")));
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        Duration untilDate = LlmRateLimiter.retryAfter(headers(date)).orElseThrow();
+        assertTrue(untilDate.compareTo(Duration.ofSeconds(25)) > 0 && untilDate.compareTo(Duration.ofSeconds(31)) <= 0);
+
+        // 이미 지난 시각이면 바로 재시도
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        assertEquals(Optional.of(Duration.ZERO), LlmRateLimiter.retryAfter(headers(past)));
+
+        assertEquals(Optional.empty(), LlmRateLimiter.retryAfter(headers("soon")));
+        assertEquals(Optional.empty(), LlmRateLimiter.retryAfter(new HttpHeaders()));
+    }
+
+    @Test
+    void tooManyRequestsWaitsForRetryAfterAndPausesSameModel() {
+        AtomicInteger attempts = new AtomicInteger();
+        long started = System.nanoTime();
+        Mono<String> first = limiter.execute("openai", "gpt-4o", LlmPriority.INTERACTIVE, DEADLINE, Map.of(), () ->
+                attempts.incrementAndGet() == 1 ? Mono.error(tooManyRequests("1")) : Mono.just("ok"));
+
+        assertEquals("ok", first.block(Duration.ofSeconds(5)));
+        assertEquals(2, attempts.get());
+        assertTrue(elapsed(started).toMillis() >= 900);
+        assertEquals(1.0, meterRegistry.counter("llm.limiter.retries",
+                "provider", "openai", "model", "gpt-4o", "status", "429").count());
+
+        // 429 직후 같은 모델로 들어온 요청도 Retry-After 동안 보내지 않는다
+        AtomicInteger pausedAttempts = new AtomicInteger();
+        Mono<String> retried = limiter.execute("openai", "gpt-4o-mini", LlmPriority.INTERACTIVE, DEADLINE, Map.of(), () ->
+                pausedAttempts.incrementAndGet() == 1 ? Mono.error(tooManyRequests("1")) : Mono.just("ok"));
+        Sinks.One<Long> otherStarted = Sinks.one();
+        long secondStarted = System.nanoTime();
+        retried.subscribe();
+        Mono<String> other = Mono.delay(Duration.ofMillis(100)).then(limiter.execute("openai", "gpt-4o-mini",
+                LlmPriority.INTERACTIVE, DEADLINE, Map.of(), () -> {
+                    otherStarted.tryEmitValue(System.nanoTime());
+                    return Mono.just("other");
+                }));
+
+        assertEquals("other", other.block(Duration.ofSeconds(5)));
+        long otherStartedNanos = otherStarted.asMono().block(Duration.ofSeconds(1));
+        assertTrue(Duration.ofNanos(otherStartedNanos - secondStarted).toMillis() >= 900);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = limiter.execute("upstage", "information-extract", LlmPriority.BACKGROUND, DEADLINE, Map.of(), () -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(400, "Bad Request", new HttpHeaders(), new byte[0], null));
+        });
+
+        assertThrows(WebClientResponseException.BadRequest.class, () -> call.block(Duration.ofSeconds(5)));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void serverErrorsGiveUpAfterMaxRetries() {
+        props.setInitialBackoff(Duration.ofMillis(10));
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = limiter.execute("openai", "gpt-4o", LlmPriority.BACKGROUND, DEADLINE, Map.of(), () -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(503, "Service Unavailable", new HttpHeaders(), new byte[0], null));
+        });
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> call.block(Duration.ofSeconds(5)));
+        assertEquals(props.getMaxRetries() + 1, attempts.get());
+    }
+
+    @Test
+    void queuedInteractiveRequestsGoBeforeBackground() {
+        props.getDefaultLimit().setMaxConcurrency(1);
+        List<String> started = new CopyOnWriteArrayList<>();
+        Sinks.One<String> running = Sinks.one();
+
+        limiter.execute("openai", "gpt-4o", LlmPriority.BACKGROUND, DEADLINE, Map.of(), () -> {
+            started.add("running");
+            return running.asMono();
+        }).subscribe();
+        Mono<String> background = limiter.execute("openai", "gpt-4o", LlmPriority.BACKGROUND, DEADLINE, Map.of(), () -> {
+            started.add("background");
+            return Mono.just("background");
+        }).cache();
+        Mono<String> interactive = limiter.execute("openai", "gpt-4o", LlmPriority.INTERACTIVE, DEADLINE, Map.of(), () -> {
+            started.add("interactive");
+            return Mono.just("interactive");
+        }).cache();
+        background.subscribe();
+        interactive.subscribe();
+
+        // 동시 요청 한도(1)가 차 있는 동안에는 대기
+        assertEquals(List.of("running"), started);
+
+        running.tryEmitValue("done");
+        assertEquals("background", background.block(Duration.ofSeconds(5)));
+        assertEquals("interactive", interactive.block(Duration.ofSeconds(5)));
+        assertEquals(List.of("running", "interactive", "background"), started);
+    }
+
+    @Test
+    void retryAfterLongerThanDeadlineFailsWithoutWaiting() {
+        AtomicInteger attempts = new AtomicInteger();
+        long started = System.nanoTime();
+        Mono<String> call = limiter.execute("openai", "gpt-4o", LlmPriority.INTERACTIVE, Duration.ofSeconds(2), Map.of(), () -> {
+            attempts.incrementAndGet();
+            return Mono.error(tooManyRequests("20"));
+        });
+
+        WebClientResponseException e = assertThrows(WebClientResponseException.TooManyRequests.class,
+                () -> call.block(Duration.ofSeconds(5)));
+        assertEquals("20", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, attempts.get());
+        assertTrue(elapsed(started).toMillis() < 1000);
+        assertEquals(1.0, meterRegistry.counter("llm.limiter.retries.abandoned",
+                "provider", "openai", "model", "gpt-4o", "status", "429").count());
+    }
+
+    @Test
+    void queueWaitBeyondDeadlineTimesOut() {
+        props.getDefaultLimit().setMaxConcurrency(1);
+        Sinks.One<String> running = Sinks.one();
+        limiter.execute("openai", "gpt-4o", LlmPriority.BACKGROUND, DEADLINE, Map.of(), running::asMono).subscribe();
+
+        AtomicInteger attempts = new AtomicInteger();
+        long started = System.nanoTime();
+        Mono<String> queued = limiter.execute("openai", "gpt-4o", LlmPriority.INTERACTIVE, Duration.ofMillis(200), Map.of(), () -> {
+            attempts.incrementAndGet();
+            return Mono.just("late");
+        });
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> queued.block(Duration.ofSeconds(5)));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(elapsed(started).toMillis() < 1000);
+        assertEquals(0, attempts.get());
+
+        // 기한이 지나 빠진 대기자는 허가를 가져가지 않는다
+        running.tryEmitValue("done");
+        assertEquals("next", limiter.execute("openai", "gpt-4o", LlmPriority.INTERACTIVE, DEADLINE, Map.of(),
+                () -> Mono.just("next")).block(Duration.ofSeconds(1)));
+    }
+
+    private static HttpHeaders headers(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return headers;
+    }
+
+    private static WebClientResponseException tooManyRequests(String retryAfter) {
+        return WebClientResponseException.create(429, "Too Many Requests", headers(retryAfter), new byte[0], null);
+    }
+
+    private static Duration elapsed(long startedNanos) {
+        return Duration.ofNanos(System.nanoTime() - startedNanos);
+    }
+}
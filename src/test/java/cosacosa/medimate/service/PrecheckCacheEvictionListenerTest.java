@@ -0,0 +1,68 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.PrecheckCacheProperties;
+import cosacosa.medimate.domain.Precheck;
+import cosacosa.medimate.domain.User;
+import cosacosa.medimate.dto.PrecheckResponseDto;
+import cosacosa.medimate.repository.PrecheckRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Hibernate 가 Spring 빈으로 만든 PrecheckCacheEvictionListener 가 문진 수정/삭제 시 캐시된 상세 응답을 지우는지 확인한다 (H2).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:precheck;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PrecheckCacheEvictionListener.class, PrecheckResponseCache.class, PrecheckCacheProperties.class, SimpleMeterRegistry.class})
+class PrecheckCacheEvictionListenerTest {
+
+    @Autowired
+    private PrecheckRepository precheckRepository;
+
+    @Autowired
+    private PrecheckResponseCache responseCache;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void updateAndDeleteEvictCachedResponse() {
+        Precheck precheck = precheckRepository.saveAndFlush(Precheck.builder()
+                .title("두통")
+                .visitPurpose("진료")
+                .name("John")
+                .age(30)
+                .nationality("US")
+                .gender("male")
+                .description("headache")
+                .user(em.getReference(User.class, 1L))
+                .build());
+        Long id = precheck.getId();
+        assertNotNull(id);
+
+        responseCache.put(id, PrecheckResponseDto.builder().id(id).title("두통").build());
+        precheck.setTitle("편두통");
+        precheckRepository.flush();
+        assertNull(responseCache.get(id));
+
+        responseCache.put(id, PrecheckResponseDto.builder().id(id).title("편두통").build());
+        precheckRepository.delete(precheck);
+        precheckRepository.flush();
+        assertNull(responseCache.get(id));
+    }
+}
@@ -0,0 +1,191 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.PrecheckCacheProperties;
+import cosacosa.medimate.domain.Precheck;
+import cosacosa.medimate.dto.PrecheckRequestDto;
+import cosacosa.medimate.dto.PrecheckResponseDto;
+import cosacosa.medimate.repository.PrecheckRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET /api/precheck/{id} 의 응답 캐시와 AI 재생성 합치기.
+ * 캐시에 있으면 DB 를 읽지 않고, 수정/삭제 이벤트로 항목이 빠지면 다시 읽으며,
+ * 같은 문진의 동시 요청은 AI 호출과 저장을 한 번만 하고, 읽은 직후 다른 요청의 재생성이 끝났으면 다시 하지 않는다.
+
+ * POST /api/precheck/stream 은 delta 이벤트 뒤에 저장된 결과를 done 이벤트로, 실패하면 error 이벤트로 끝낸다.
+ */
+class PrecheckServiceTest {
+
+    private static final Long ID = 42L;
+
+    private final PrecheckRepository repository = mock(PrecheckRepository.class);
+    private final AiPrecheckService aiService = mock(AiPrecheckService.class);
+    private final PrecheckResponseCache responseCache = new PrecheckResponseCache(new PrecheckCacheProperties(), new SimpleMeterRegistry());
+    private final PrecheckCacheEvictionListener evictionListener = new PrecheckCacheEvictionListener(responseCache);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final PrecheckService precheckService = new PrecheckService(repository, aiService, responseCache, transactionTemplate);
+
+    @Test
+    void completedPrecheckIsServedFromCacheAfterFirstRead() {
+        when(repository.findById(ID)).thenReturn(Optional.of(precheck("두통", "Headache", "두통이 있어요")));
+
+        PrecheckResponseDto first = precheckService.detail(ID).block();
+        PrecheckResponseDto second = precheckService.detail(ID).block();
+
+        assertSame(first, second);
+        verify(repository, times(1)).findById(ID);
+    }
+
+    @Test
+    void updateEvictsCachedResponse() {
+        Precheck precheck = precheck("두통", "Headache", "두통이 있어요");
+        when(repository.findById(ID)).thenReturn(Optional.of(precheck));
+        assertEquals("두통", precheckService.detail(ID).block().getTitle());
+
+        precheck.setTitle("편두통");
+        evictionListener.evict(precheck); // @PostUpdate
+        assertNull(responseCache.get(ID));
+
+        assertEquals("편두통", precheckService.detail(ID).block().getTitle());
+        verify(repository, times(2)).findById(ID);
+    }
+
+    @Test
+    void concurrentRequestsShareOneRegeneration() {
+        Precheck precheck = precheck(null, null, null);
+        when(repository.findById(ID)).thenReturn(Optional.of(precheck));
+        when(repository.saveAndFlush(precheck)).thenReturn(precheck);
+        Sinks.One<AiPrecheckService.AiResultFull> ai = Sinks.one();
+        when(aiService.generateTitleAndContent(any(PrecheckRequestDto.class))).thenReturn(ai.asMono());
+
+        Mono<PrecheckResponseDto> first = precheckService.detail(ID);
+        Mono<PrecheckResponseDto> second = precheckService.detail(ID);
+        first.subscribe();
+        second.subscribe();
+
+        ai.tryEmitValue(new AiPrecheckService.AiResultFull("두통", "진료", "Headache", "두통이 있어요"));
+        PrecheckResponseDto response = first.block(Duration.ofSeconds(1));
+
+        assertSame(response, second.block(Duration.ofSeconds(1)));
+        assertEquals("두통", response.getTitle());
+        verify(aiService, times(1)).generateTitleAndContent(any(PrecheckRequestDto.class));
+        verify(repository, times(1)).saveAndFlush(precheck);
+
+        // 재생성이 끝나면 이후 요청은 캐시에서 응답하고 진행 중 목록에서는 빠진다
+        assertSame(response, precheckService.detail(ID).block());
+        assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(precheckService, "regenerations")).containsKey(ID));
+    }
+
+    @Test
+    void failedRegenerationIsNotCachedAndCanBeRetried() {
+        Precheck precheck = precheck(null, null, null);
+        when(repository.findById(ID)).thenReturn(Optional.of(precheck));
+        when(repository.saveAndFlush(precheck)).thenReturn(precheck);
+        when(aiService.generateTitleAndContent(any(PrecheckRequestDto.class)))
+                .thenReturn(Mono.error(new IllegalStateException("openai unavailable")))
+                .thenReturn(Mono.just(new AiPrecheckService.AiResultFull("두통", "진료", "Headache", "두통이 있어요")));
+
+        Mono<PrecheckResponseDto> failed = precheckService.detail(ID);
+        assertThrows(IllegalStateException.class, failed::block);
+        assertNull(responseCache.get(ID));
+
+        assertEquals("두통", precheckService.detail(ID).block().getTitle());
+        verify(aiService, times(2)).generateTitleAndContent(any(PrecheckRequestDto.class));
+    }
+
+    @Test
+    void regenerationFinishedAfterFirstReadIsNotRepeated() {
+        PrecheckResponseDto regenerated = PrecheckResponseDto.builder().id(ID).title("두통").build();
+        // 첫 조회는 비어 있는 문진을 읽고, 그 직후 다른 요청의 재생성이 끝나 캐시에 들어간다
+        when(repository.findById(ID)).thenAnswer(invocation -> {
+            responseCache.put(ID, regenerated);
+            return Optional.of(precheck(null, null, null));
+        });
+
+        assertSame(regenerated, precheckService.detail(ID).block());
+        verify(aiService, never()).generateTitleAndContent(any(PrecheckRequestDto.class));
+        verify(repository, times(1)).findById(ID);
+        assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(precheckService, "regenerations")).containsKey(ID));
+    }
+
+    @Test
+    void regenerationSavedButEvictedIsReloadedInsteadOfRepeated() {
+        // 재생성 결과가 저장된 뒤 캐시에서 빠졌다면 다시 읽은 문진으로 응답한다
+        when(repository.findById(ID))
+                .thenReturn(Optional.of(precheck(null, null, null)))
+                .thenReturn(Optional.of(precheck("두통", "Headache", "두통이 있어요")));
+
+        assertEquals("두통", precheckService.detail(ID).block().getTitle());
+        verify(aiService, never()).generateTitleAndContent(any(PrecheckRequestDto.class));
+        assertEquals("두통", responseCache.get(ID).getTitle());
+    }
+
+    @Test
+    void createStreamSendsDeltasThenSavedResponse() {
+        PrecheckRequestDto req = new PrecheckRequestDto();
+        AiPrecheckService.AiResultFull ai = new AiPrecheckService.AiResultFull("두통", "진료", "Headache", "두통이 있어요");
+        when(aiService.streamTitleAndContent(req)).thenReturn(Flux.just("{\"title\":", "\"Headache\"}"));
+        when(aiService.parseResult(req, "{\"title\":\"Headache\"}")).thenReturn(ai);
+        when(repository.save(any(Precheck.class))).thenReturn(precheck("두통", "Headache", "두통이 있어요"));
+        ReflectionTestUtils.setField(precheckService, "em", mock(EntityManager.class));
+
+        List<ServerSentEvent<Object>> events = precheckService.createStream(req).collectList().block(Duration.ofSeconds(1));
+
+        assertEquals(List.of("delta", "delta", "done"), events.stream().map(ServerSentEvent::event).toList());
+        assertEquals(Map.of("text", "{\"title\":"), events.get(0).data());
+        assertEquals(ID, ((PrecheckResponseDto) events.get(2).data()).getId());
+    }
+
+    @Test
+    void createStreamEndsWithErrorEventWhenGenerationFails() {
+        PrecheckRequestDto req = new PrecheckRequestDto();
+        when(aiService.streamTitleAndContent(req)).thenReturn(Flux.concat(Flux.just("{"), Flux.error(new IllegalStateException("openai unavailable"))));
+
+        List<ServerSentEvent<Object>> events = precheckService.createStream(req).collectList().block(Duration.ofSeconds(1));
+
+        assertEquals(List.of("delta", "error"), events.stream().map(ServerSentEvent::event).toList());
+        verify(repository, never()).save(any(Precheck.class));
+    }
+
+    private static Precheck precheck(String title, String content, String koreanContent) {
+        Precheck precheck = Precheck.builder()
+                .title(title)
+                .content(content)
+                .koreanContent(koreanContent)
+                .visitPurpose("진료")
+                .name("John")
+                .age(30)
+                .nationality("US")
+                .gender("male")
+                .description("headache")
+                .build();
+        ReflectionTestUtils.setField(precheck, "id", ID);
+        return precheck;
+    }
+}
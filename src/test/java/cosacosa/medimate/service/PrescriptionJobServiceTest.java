@@ -0,0 +1,101 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.PrescriptionJobProperties;
+import cosacosa.medimate.domain.Prescription;
+import cosacosa.medimate.domain.PrescriptionJob;
+import cosacosa.medimate.domain.PrescriptionJobStatus;
+import cosacosa.medimate.repository.PrescriptionJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 처방전 작업 완료의 멱등성. 처방전을 저장한 뒤 완료 전에 멈춘 작업은 다시 생성하지 않고,
+ * 완료 시점에 임대를 잃었으면 실패 처리하지 않고 가져간 인스턴스에 맡긴다.
+ */
+class PrescriptionJobServiceTest {
+
+    private static final Long JOB_ID = 3L;
+    private static final Long PRESCRIPTION_ID = 7L;
+
+    private final PrescriptionJobRepository jobRepository = mock(PrescriptionJobRepository.class);
+    private final PrescriptionService prescriptionService = mock(PrescriptionService.class);
+    private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+    private final PrescriptionJobProperties props = new PrescriptionJobProperties();
+    private final PrescriptionJobService jobService = new PrescriptionJobService(jobRepository, prescriptionService,
+            mock(FileUploadService.class), messagingTemplate, mock(ThreadPoolTaskExecutor.class), props);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumedJobCompletesWithPrescriptionSavedBeforeCrash() throws IOException {
+        Path image = Files.createFile(dir.resolve("image"));
+        givenGeneratingJob(image);
+        when(prescriptionService.findExisting("hash", "english")).thenReturn(Optional.of(prescription()));
+        when(jobRepository.completeLeased(eq(JOB_ID), eq(props.getOwnerId()), eq(PRESCRIPTION_ID), any(), eq(PrescriptionJobStatus.COMPLETED)))
+                .thenReturn(1);
+
+        jobService.run(JOB_ID);
+
+        verify(prescriptionService, never()).generatePrescription(anyList(), anyString(), anyString(), anyString());
+        verify(jobRepository).completeLeased(eq(JOB_ID), eq(props.getOwnerId()), eq(PRESCRIPTION_ID), any(), eq(PrescriptionJobStatus.COMPLETED));
+        assertFalse(Files.exists(image));
+    }
+
+    @Test
+    void leaseLostAtCompletionLeavesJobToNewOwner() throws IOException {
+        Path image = Files.createFile(dir.resolve("image"));
+        PrescriptionJob job = givenGeneratingJob(image);
+        when(prescriptionService.findExisting("hash", "english")).thenReturn(Optional.empty());
+        when(prescriptionService.generatePrescription(List.of("타이레놀정"), "english", "hash", "https://s3/image"))
+                .thenReturn(Mono.just(prescription()));
+        when(jobRepository.completeLeased(any(), any(), any(), any(), any())).thenReturn(0);
+
+        jobService.run(JOB_ID);
+
+        // 새 owner 가 같은 처방전을 찾아 완료하므로 실패로 덮어쓰지 않고 스풀 파일도 남긴다
+        assertNotEquals(PrescriptionJobStatus.FAILED, job.getStatus());
+        assertTrue(Files.exists(image));
+    }
+
+    private PrescriptionJob givenGeneratingJob(Path image) {
+        PrescriptionJob job = new PrescriptionJob("english", image.toString(), "image.jpg", "image/jpeg", "hash");
+        ReflectionTestUtils.setField(job, "id", JOB_ID);
+        job.uploaded("https://s3/image");
+        job.extracted("타이레놀정");
+        job.moveTo(PrescriptionJobStatus.GENERATING);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(jobRepository.renewLease(eq(JOB_ID), eq(props.getOwnerId()), any())).thenReturn(1);
+        when(jobRepository.save(any(PrescriptionJob.class))).then(returnsFirstArg());
+        return job;
+    }
+
+    private static Prescription prescription() {
+        Prescription prescription = new Prescription("처방전", "content", "koreanContent", "contentMd", "koreanContentMd");
+        ReflectionTestUtils.setField(prescription, "id", PRESCRIPTION_ID);
+        return prescription;
+    }
+}
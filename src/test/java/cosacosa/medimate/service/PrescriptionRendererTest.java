@@ -0,0 +1,136 @@
+package cosacosa.medimate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 구조화된 생성 결과를 기존 단순 문자열 / 마크다운 본문 형식으로 만드는지 확인한다.
+ */
+class PrescriptionRendererTest {
+
+    private static final PrescriptionDetails.Sections KOREAN = new PrescriptionDetails.Sections(
+            "해열, 진통", "1회 1정\n\n  하루 3번 ", "간 질환자는 의사와 상담", null, "  ", "실온 보관");
+    private static final PrescriptionDetails.Sections ENGLISH = new PrescriptionDetails.Sections(
+            "Fever, pain relief", "1 tablet\n3 times a day", "Consult a doctor if you have liver disease", "", null, "Room temperature");
+    private static final PrescriptionDetails.Labels ENGLISH_LABELS = new PrescriptionDetails.Labels(
+            "Medicine", "Efficacy", "Usage", "Precautions", " ", null, "Storage");
+
+    @Test
+    void rendersPlainTextWithIndentedLinesAndPlaceholdersForEmptyItems() {
+        PrescriptionRenderer.Rendered rendered = PrescriptionRenderer.render(
+                new PrescriptionDetails.Medicine(" 타이레놀정500밀리그램 ", "Tylenol 500mg", null, KOREAN, ENGLISH), ENGLISH_LABELS);
+
+        assertEquals("""
+                <의약품명: 타이레놀정500밀리그램>
+                [🎯효능]
+                \t해열, 진통
+
+                [🕒사용법]
+                \t1회 1정
+                \t하루 3번
+
+                [⚠️주의사항]
+                \t간 질환자는 의사와 상담
+
+                [🔄약물 상호작용]
+                \t-
+
+                [🚨부작용]
+                \t-
+
+                [📦보관법]
+                \t실온 보관""", rendered.koreanContent());
+        // 비어 있는 번역 항목 이름은 영어 이름으로 채운다
+        assertEquals("""
+                <Medicine: Tylenol 500mg>
+                [🎯Efficacy]
+                \tFever, pain relief
+
+                [🕒Usage]
+                \t1 tablet
+                \t3 times a day
+
+                [⚠️Precautions]
+                \tConsult a doctor if you have liver disease
+
+                [🔄Drug interactions]
+                \t-
+
+                [🚨Side effects]
+                \t-
+
+                [📦Storage]
+                \tRoom temperature""", rendered.content());
+    }
+
+    @Test
+    void rendersMarkdownHeadings() {
+        PrescriptionRenderer.Rendered rendered = PrescriptionRenderer.render(
+                new PrescriptionDetails.Medicine("타이레놀정500밀리그램", null, null, KOREAN, null), null);
+
+        assertEquals("""
+                # 💊 의약품명: 타이레놀정500밀리그램
+
+                ## 🎯 효능
+                해열, 진통
+
+                ## 🕒 사용법
+                1회 1정
+                하루 3번
+
+                ## ⚠️ 주의사항
+                간 질환자는 의사와 상담
+
+                ## 🔄 약물 상호작용
+                -
+
+                ## 🚨 부작용
+                -
+
+                ## 📦 보관법
+                실온 보관""", rendered.koreanContentMd());
+        // 번역 이름이 없으면 원래 이름, 번역 내용이 없으면 모든 항목이 "-"
+        assertEquals("""
+                # 💊 Medicine: 타이레놀정500밀리그램
+
+                ## 🎯 Efficacy
+                -
+
+                ## 🕒 Usage
+                -
+
+                ## ⚠️ Precautions
+                -
+
+                ## 🔄 Drug interactions
+                -
+
+                ## 🚨 Side effects
+                -
+
+                ## 📦 Storage
+                -""", rendered.contentMd());
+    }
+
+    @Test
+    void joinsMedicinesInOrderWithOneBlankLine() {
+        PrescriptionDetails.Medicine tylenol = new PrescriptionDetails.Medicine("타이레놀정500밀리그램", "Tylenol", null, KOREAN, ENGLISH);
+        PrescriptionDetails.Medicine mucosta = new PrescriptionDetails.Medicine("뮤코스타정100밀리그램", "Mucosta", null, KOREAN, ENGLISH);
+
+        MedicineExplanationService.Contents contents = PrescriptionRenderer.render(
+                new PrescriptionDetails(" 처방전 안내 ", ENGLISH_LABELS, List.of(tylenol, mucosta)));
+
+        assertEquals("처방전 안내", contents.title());
+        assertEquals(PrescriptionRenderer.render(tylenol, ENGLISH_LABELS).content() + "\n\n"
+                + PrescriptionRenderer.render(mucosta, ENGLISH_LABELS).content(), contents.content());
+        assertEquals(PrescriptionRenderer.render(tylenol, ENGLISH_LABELS).koreanContentMd() + "\n\n"
+                + PrescriptionRenderer.render(mucosta, ENGLISH_LABELS).koreanContentMd(), contents.koreanContentMd());
+
+        MedicineExplanationService.Contents empty = PrescriptionRenderer.render(new PrescriptionDetails(null, null, null));
+        assertEquals("", empty.title());
+        assertEquals("", empty.content());
+    }
+}
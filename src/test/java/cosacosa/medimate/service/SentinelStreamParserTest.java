@@ -0,0 +1,115 @@
+package cosacosa.medimate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * 센티넬 섹션 파싱. 마커가 청크 경계 어디에서 잘려도 전체 응답을 한 번에 파싱한 결과와 같아야 하고,
+ * DELTA 로 내보낸 텍스트에는 마커 조각이 섞이지 않아야 한다.
+ */
+class SentinelStreamParserTest {
+
+    private static final String RESPONSE = """
+            서두는 무시된다 <<<BEGIN_TITLE>>>
+            타이레놀 복용 안내 <<<END_TITLE>>>
+            <<<BEGIN_CONTENT>>>
+            하루 3번, a < b 이고 <<x>> 같은 텍스트와 <<<NOT_A_MARKER>>> 는 그대로 둔다.
+            <<<END_CONTENT>>>
+            <<<BEGIN_KOREAN>>>한국어 내용""";
+
+    @Test
+    void parsesSectionsOfWholeResponse() {
+        SentinelStreamParser.Sections sections = SentinelStreamParser.parse(RESPONSE);
+
+        assertEquals(List.of("TITLE", "CONTENT", "KOREAN"), List.copyOf(sections.contents().keySet()));
+        assertEquals("타이레놀 복용 안내", sections.get("TITLE"));
+        assertEquals("하루 3번, a < b 이고 <<x>> 같은 텍스트와 <<<NOT_A_MARKER>>> 는 그대로 둔다.", sections.get("CONTENT"));
+        // 닫히지 않은 마지막 섹션은 응답 끝까지를 내용으로 본다
+        assertEquals("한국어 내용", sections.get("KOREAN"));
+        assertEquals(List.of("ENGLISH"), sections.missing(List.of("TITLE", "ENGLISH")));
+        assertEquals("", sections.get("ENGLISH"));
+    }
+
+    @Test
+    void markersSplitAcrossTwoChunksAtEveryPosition() {
+        Map<String, String> expected = SentinelStreamParser.parse(RESPONSE).contents();
+        for (int split = 0; split <= RESPONSE.length(); split++) {
+            List<String> chunks = List.of(RESPONSE.substring(0, split), RESPONSE.substring(split));
+            assertStreamMatches(expected, chunks, "split at " + split);
+        }
+    }
+
+    @Test
+    void markersFedOneCharacterAtATime() {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < RESPONSE.length(); i++) {
+            chunks.add(String.valueOf(RESPONSE.charAt(i)));
+        }
+        assertStreamMatches(SentinelStreamParser.parse(RESPONSE).contents(), chunks, "one character per chunk");
+    }
+
+    @Test
+    void mismatchedEndMarkerDoesNotCloseSection() {
+        SentinelStreamParser.Sections sections = SentinelStreamParser.parse(
+                "<<<BEGIN_TITLE>>>제목<<<END_CONTENT>>> 계속<<<END_TITLE>>>");
+
+        assertEquals("제목 계속", sections.get("TITLE"));
+    }
+
+    @Test
+    void repeatedSectionKeepsFirstContent() {
+        SentinelStreamParser.Sections sections = SentinelStreamParser.parse(
+                "<<<BEGIN_TITLE>>>첫 제목<<<END_TITLE>>><<<BEGIN_TITLE>>>둘째 제목<<<END_TITLE>>>");
+
+        assertEquals("첫 제목", sections.get("TITLE"));
+    }
+
+    @Test
+    void unterminatedMarkersStayLinear() {
+        // ">>>" 없이 "<<<" 만 반복되는 깨진 출력 (정규식 방식에서는 입력 길이의 제곱에 비례했다)
+        String broken = "<<<BEGIN_CONTENT>>>" + "<<<BEGIN_".repeat(200_000);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            SentinelStreamParser parser = new SentinelStreamParser();
+            for (int i = 0; i < broken.length(); i += 8192) {
+                parser.feed(broken.substring(i, Math.min(broken.length(), i + 8192)));
+            }
+            parser.finish();
+            assertEquals(broken.length() - "<<<BEGIN_CONTENT>>>".length(), parser.sections().get("CONTENT").length());
+        });
+    }
+
+    private static void assertStreamMatches(Map<String, String> expected, List<String> chunks, String description) {
+        SentinelStreamParser parser = new SentinelStreamParser();
+        List<SentinelStreamParser.Event> events = new ArrayList<>();
+        for (String chunk : chunks) {
+            events.addAll(parser.feed(chunk));
+        }
+        events.addAll(parser.finish());
+
+        Map<String, StringBuilder> deltas = new LinkedHashMap<>();
+        Map<String, String> ended = new LinkedHashMap<>();
+        for (SentinelStreamParser.Event event : events) {
+            switch (event.type()) {
+                case SECTION_START -> deltas.put(event.section(), new StringBuilder());
+                case DELTA -> deltas.get(event.section()).append(event.text());
+                case SECTION_END -> ended.put(event.section(), event.text());
+            }
+        }
+
+        assertEquals(expected, parser.sections().contents(), description);
+        assertEquals(expected, ended, description);
+        deltas.forEach((section, text) -> {
+            assertEquals(expected.get(section), text.toString().strip(), description);
+            assertFalse(text.toString().contains("<<<BEGIN_") || text.toString().contains("<<<END_"), description);
+        });
+    }
+}
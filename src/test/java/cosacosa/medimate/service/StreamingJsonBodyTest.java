@@ -0,0 +1,93 @@
+package cosacosa.medimate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 청크 단위로 만든 본문이 파일 내용을 data URI 로 넣어 Jackson 으로 한 번에 직렬화한 본문과 바이트 단위로 같은지,
+ * Content-Length 가 실제 길이와 맞는지 확인한다. base64 패딩이 달라지는 크기와 청크(48KB) 경계 주변을 모두 본다.
+ */
+class StreamingJsonBodyTest {
+
+    private static final int CHUNK_BYTES = 48 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bodyMatchesInlineSerializationForAllPaddingsAndChunkBoundaries() throws IOException {
+        for (int size : List.of(0, 1, 2, 3, 4, CHUNK_BYTES - 1, CHUNK_BYTES, CHUNK_BYTES + 1, 2 * CHUNK_BYTES + 2)) {
+            Path image = file("image-" + size + ".jpg", size);
+            StreamingJsonBody.InlineFile inline = new StreamingJsonBody.InlineFile(image, "image/jpeg");
+
+            StreamingJsonBody body = StreamingJsonBody.of(objectMapper, request(inline));
+            byte[] expected = objectMapper.writeValueAsBytes(request(dataUri(image, "image/jpeg")));
+
+            byte[] actual = read(body);
+            assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8), "size " + size);
+            assertEquals(expected.length, body.contentLength(), "size " + size);
+        }
+    }
+
+    @Test
+    void multipleFilesKeepTheirPositionsAndResubscriptionRereads() throws IOException {
+        Path front = file("front.png", 1000);
+        Path back = file("back.jpg", 70_000);
+        Map<String, Object> request = Map.of("pages", List.of(
+                Map.of("url", new StreamingJsonBody.InlineFile(front, "image/png")),
+                Map.of("url", new StreamingJsonBody.InlineFile(back, "image/jpeg"))));
+        Map<String, Object> inline = Map.of("pages", List.of(
+                Map.of("url", dataUri(front, "image/png")),
+                Map.of("url", dataUri(back, "image/jpeg"))));
+
+        StreamingJsonBody body = StreamingJsonBody.of(objectMapper, request);
+        String expected = objectMapper.writeValueAsString(inline);
+
+        assertEquals(expected, new String(read(body), StandardCharsets.UTF_8));
+        // 재시도 시 다시 구독해도 같은 본문
+        assertEquals(expected, new String(read(body), StandardCharsets.UTF_8));
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, body.contentLength());
+    }
+
+    private static Map<String, Object> request(Object url) {
+        return Map.of(
+                "model", "information-extract",
+                "messages", List.of(Map.of("role", "user", "content", List.of(
+                        Map.of("type", "image_url", "image_url", Map.of("url", url))))));
+    }
+
+    private Path file(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return Files.write(dir.resolve(name), bytes);
+    }
+
+    private static String dataUri(Path path, String mediaType) throws IOException {
+        return "data:" + mediaType + ";base64," + Base64.getEncoder().encodeToString(Files.readAllBytes(path));
+    }
+
+    private static byte[] read(StreamingJsonBody body) {
+        DataBuffer joined = DataBufferUtils.join(body.publisher(Schedulers.boundedElastic())).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package cosacosa.medimate.service;
+
+import cosacosa.medimate.config.TranslationCacheProperties;
+import cosacosa.medimate.domain.TranslationCacheEntry;
+import cosacosa.medimate.repository.TranslationCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 번역 캐시 키 정규화, 캐시 대상 제한, 영속 캐시(MySQL) read-through.
+ */
+class TranslationCacheTest {
+
+    private final TranslationCacheRepository repository = mock(TranslationCacheRepository.class);
+    private final TranslationCacheProperties props = new TranslationCacheProperties();
+
+    private TranslationCache cache() {
+        return new TranslationCache(repository, props, Schedulers.immediate(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whitespaceVariantsShareOneEntry() {
+        TranslationCache cache = cache();
+        cache.put(TranslationCache.Key.of("감사합니다", "korean", "english", "gpt-4o"), "Thank you");
+
+        assertEquals("Thank you", cache.get(TranslationCache.Key.of("  감사합니다 \n", "korean", "english", "gpt-4o")).block());
+        // 대상 언어나 모델이 다르면 다른 항목
+        assertNull(cache.get(TranslationCache.Key.of("감사합니다", "korean", "japanese", "gpt-4o")).block());
+        assertNull(cache.get(TranslationCache.Key.of("감사합니다", "korean", "english", "gpt-4o-mini")).block());
+    }
+
+    @Test
+    void longOrBlankValuesAreNotCached() {
+        props.setMaxTextLength(5);
+        TranslationCache cache = cache();
+        TranslationCache.Key longText = TranslationCache.Key.of("두통이 사흘째 계속돼요", "korean", "english", "gpt-4o");
+        TranslationCache.Key shortText = TranslationCache.Key.of("네", "korean", "english", "gpt-4o");
+
+        cache.put(longText, "My headache has lasted three days");
+        cache.put(shortText, " ");
+
+        assertNull(cache.get(longText).block());
+        assertNull(cache.get(shortText).block());
+    }
+
+    @Test
+    void persistentHitIsPromotedToMemory() {
+        props.setPersistentEnabled(true);
+        TranslationCache cache = cache();
+        TranslationCacheEntry entry = new TranslationCacheEntry("hash", "네", "korean", "english", "gpt-4o", "Yes");
+        when(repository.findByKeyHash(anyString())).thenReturn(Optional.of(entry));
+        TranslationCache.Key key = TranslationCache.Key.of("네", "korean", "english", "gpt-4o");
+
+        assertEquals("Yes", cache.get(key).block());
+        assertEquals("Yes", cache.get(key).block());
+        verify(repository, times(1)).findByKeyHash(anyString());
+    }
+
+    @Test
+    void putStoresPersistentEntryOnlyWhenEnabled() {
+        TranslationCache.Key key = TranslationCache.Key.of("네", "korean", "english", "gpt-4o");
+        cache().put(key, "Yes");
+        verify(repository, never()).save(any());
+
+        props.setPersistentEnabled(true);
+        cache().put(key, "Yes");
+        verify(repository, timeout(1000)).save(any(TranslationCacheEntry.class));
+    }
+}